@@ -0,0 +1,118 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.NonOverlapping;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.ShiftedBox;
+import org.chocosolver.solver.constraints.nary.geost.util.MutePropagationEngine;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A placement problem for the kernel benchmarks: n objects in a k-dimensional grid of cells, under one
+ * non-overlapping constraint. Objects of even id are fixed in their own cell, so that the frame of the constraint
+ * holds a forbidden region for each of them. Objects of odd id can be placed anywhere; when the instance is
+ * polymorphic, their shape is not fixed either.
+ * <p>
+ * The constraint is posted but not propagated, and the propagation engine is muted: bounds modified by a benchmark
+ * do not schedule anything.
+ */
+public final class GeostInstance {
+
+    private static final int CELL = 4;
+
+    public final int k;
+    public final Model model;
+    public final List<GeostObject> objects = new ArrayList<>();
+    public final List<ShiftedBox> sBoxes = new ArrayList<>();
+    public final List<ExternalConstraint> ectrs = new ArrayList<>();
+    public final int[] oIDs;
+    public final PropGeost propagator;
+
+    /**
+     * @param k           the number of dimensions
+     * @param n           the number of objects
+     * @param nbShapes    the number of shapes, each made of one to three boxes
+     * @param polymorphic whether the free objects can take any shape
+     * @param seed        seed of the shapes and of the positions of the fixed objects
+     */
+    public GeostInstance(int k, int n, int nbShapes, boolean polymorphic, long seed) {
+        this(k, n, nbShapes, polymorphic, seed, new GeostOptions());
+    }
+
+    /**
+     * Same as {@link #GeostInstance(int, int, int, boolean, long)}, the constraint is built with the options opt.
+     */
+    public GeostInstance(int k, int n, int nbShapes, boolean polymorphic, long seed, GeostOptions opt) {
+        this.k = k;
+        this.model = new Model();
+        Random rnd = new Random(seed);
+        for (int s = 0; s < nbShapes; s++) {
+            int nb = 1 + rnd.nextInt(3);
+            for (int b = 0; b < nb; b++) {
+                int[] t = new int[k];
+                int[] l = new int[k];
+                for (int j = 0; j < k; j++) {
+                    t[j] = b == 0 ? 0 : rnd.nextInt(2);
+                    l[j] = 1 + rnd.nextInt(CELL - t[j]);
+                }
+                sBoxes.add(new ShiftedBox(s, t, l));
+            }
+        }
+        // enough cells for every object
+        int side = 1;
+        while (Math.pow(side, k) < n) {
+            side++;
+        }
+        int max = side * CELL - 1;
+        oIDs = new int[n];
+        for (int i = 0; i < n; i++) {
+            IntVar shapeId;
+            IntVar[] coords = new IntVar[k];
+            if (i % 2 == 0) {
+                shapeId = model.intVar(rnd.nextInt(nbShapes));
+                int cell = i;
+                for (int j = 0; j < k; j++) {
+                    coords[j] = model.intVar((cell % side) * CELL);
+                    cell /= side;
+                }
+            } else {
+                shapeId = polymorphic ? model.intVar("sid" + i, 0, nbShapes - 1, false) : model.intVar(rnd.nextInt(nbShapes));
+                for (int j = 0; j < k; j++) {
+                    coords[j] = model.intVar("x" + i + "_" + j, 0, max, false);
+                }
+            }
+            objects.add(new GeostObject(k, i, shapeId, coords, model.intVar(1), model.intVar(1), model.intVar(1)));
+            oIDs[i] = i;
+        }
+        int[] ectrDim = new int[k];
+        for (int j = 0; j < k; j++) {
+            ectrDim[j] = j;
+        }
+        ectrs.add(new NonOverlapping(Constants.NON_OVERLAPPING, ectrDim, oIDs));
+        Constraint geost = GeostBuilder.geost(k, objects, sBoxes, ectrs, null, opt);
+        model.post(geost);
+        propagator = (PropGeost) geost.getPropagator(0);
+        ((MutePropagationEngine) model.getSolver().getEngine()).mute();
+    }
+
+    /**
+     * Returns the first object which is not fixed.
+     */
+    public GeostObject firstFreeObject() {
+        return objects.get(1);
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.NonOverlapping;
+import org.chocosolver.solver.constraints.nary.geost.util.RandomProblemGenerator;
+import org.chocosolver.solver.search.strategy.Search;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+// explicit, org.chocosolver.solver.constraints.nary.geost.Setup would hide it
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full resolutions of problems built by {@link RandomProblemGenerator}, as in the tutorial. The search is random but
+ * seeded and the number of nodes is bounded, so that every invocation explores the same tree.
+ * <p>
+ * Most of the generated problems are proven infeasible at the root node. An instance is given as dim:n:seed, and the
+ * instances below are ones where the search actually starts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolveBenchmark {
+
+    @Param({"2:5:1", "2:5:2", "3:5:0", "3:7:1", "3:9:17", "3:12:13"})
+    String instance;
+
+    @Param({"2000"})
+    long nodes;
+
+    /**
+     * See {@link GeostOptions#clipping}.
+     */
+    @Param({"true", "false"})
+    boolean clipping;
+
+    private Solver solver;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        String[] p = instance.split(":");
+        int dim = Integer.parseInt(p[0]);
+        int n = Integer.parseInt(p[1]);
+        long seed = Long.parseLong(p[2]);
+        RandomProblemGenerator rp = new RandomProblemGenerator(dim, n, n, n + 2, 25, seed);
+        rp.generateProb();
+        Model m = rp.getModel();
+        int[] ectrDim = new int[dim];
+        for (int i = 0; i < dim; i++) {
+            ectrDim[i] = i;
+        }
+        int[] objOfEctr = new int[rp.getObjects().size()];
+        for (int i = 0; i < rp.getObjects().size(); i++) {
+            objOfEctr[i] = rp.getObjects().get(i).getObjectId();
+        }
+        List<ExternalConstraint> ectrs = new ArrayList<>();
+        ectrs.add(new NonOverlapping(Constants.NON_OVERLAPPING, ectrDim, objOfEctr));
+        GeostOptions opt = new GeostOptions();
+        opt.clipping = clipping;
+        m.post(GeostBuilder.geost(dim, rp.getObjects(), rp.getSBoxes(), ectrs, null, opt));
+        solver = m.getSolver();
+        solver.setSearch(Search.randomSearch(m.retrieveIntVars(true), seed));
+        solver.limitNode(nodes);
+    }
+
+    @Benchmark
+    public long solve() {
+        while (solver.solve()) {
+            // enumerates the solutions
+        }
+        return solver.getNodeCount();
+    }
+}
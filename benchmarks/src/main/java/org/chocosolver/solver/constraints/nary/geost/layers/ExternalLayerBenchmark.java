@@ -0,0 +1,75 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.GeostInstance;
+import org.chocosolver.solver.constraints.nary.geost.GeostOptions;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.frames.Frame;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.InternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.OutboxArena;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of the frame of a non-overlapping constraint and generation of the outboxes of one object from that
+ * frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExternalLayerBenchmark {
+
+    @Param({"2", "3"})
+    int dim;
+
+    @Param({"16", "64", "256"})
+    int n;
+
+    /**
+     * See {@link GeostOptions#clipping}.
+     */
+    @Param({"true", "false"})
+    boolean clipping;
+
+    private ExternalLayer externalLayer;
+    private ExternalConstraint ectr;
+    private int[] oIDs;
+    private GeostObject o;
+    private final OutboxArena arena = new OutboxArena();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GeostOptions opt = new GeostOptions();
+        opt.clipping = clipping;
+        GeostInstance instance = new GeostInstance(dim, n, 8, false, 0, opt);
+        externalLayer = instance.propagator.getExternalLayer();
+        ectr = instance.ectrs.get(0);
+        oIDs = instance.oIDs;
+        o = instance.firstFreeObject();
+        instance.propagator.getGeometricKernel().initFrames(oIDs, instance.ectrs);
+    }
+
+    @Benchmark
+    public Frame initFrameExternalConstraint() {
+        return externalLayer.InitFrameExternalConstraint(ectr, oIDs);
+    }
+
+    @Benchmark
+    public List<InternalConstraint> genInternalCtrsForNonOverlapping() {
+        arena.clear();
+        return externalLayer.genInternalCtrs(ectr, o, arena);
+    }
+}
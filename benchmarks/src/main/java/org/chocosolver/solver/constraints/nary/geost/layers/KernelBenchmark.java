@@ -0,0 +1,112 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.constraints.nary.geost.GeostInstance;
+import org.chocosolver.solver.constraints.nary.geost.GeostOptions;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sweeps of the geometric kernel on a single object with a fixed shape, whose frame is already built. Each invocation
+ * runs in its own world, so the bounds of the object are the same from one invocation to the other.
+ * <p>
+ * This class lives in the package of the kernel to reach its package-private methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KernelBenchmark {
+
+    @Param({"2", "3"})
+    int dim;
+
+    @Param({"16", "64", "256"})
+    int n;
+
+    /**
+     * See {@link GeostOptions#clipping}.
+     */
+    @Param({"true", "false"})
+    boolean clipping;
+
+    /**
+     * See {@link GeostOptions#unrolled}.
+     */
+    @Param({"true", "false"})
+    boolean unrolled;
+
+    /**
+     * See {@link GeostOptions#gridCells}, large enough for the grid to be chosen, or 0 to sweep.
+     */
+    @Param({"1000000", "0"})
+    int gridCells;
+
+    private GeometricKernel kernel;
+    private IEnvironment env;
+    private GeostObject o;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ContradictionException {
+        GeostOptions opt = new GeostOptions();
+        opt.clipping = clipping;
+        opt.unrolled = unrolled;
+        opt.gridCells = gridCells;
+        GeostInstance instance = new GeostInstance(dim, n, 8, false, 0, opt);
+        kernel = instance.propagator.getGeometricKernel();
+        env = instance.model.getEnvironment();
+        o = instance.firstFreeObject();
+        kernel.initFrames(instance.oIDs, instance.ectrs);
+        // generates and indexes the internal constraints of o, which pruneMin and pruneMax rely on
+        env.worldPush();
+        kernel.filterObj(dim, o.getObjectId());
+        env.worldPop();
+        kernel.indexInternalConstraints(o, dim);
+    }
+
+    @Benchmark
+    public boolean pruneMin() throws ContradictionException {
+        env.worldPush();
+        boolean b = true;
+        for (int d = 0; d < dim && b; d++) {
+            b = kernel.pruneMin(o, d, dim, o.getRelatedInternalConstraints());
+        }
+        env.worldPop();
+        return b;
+    }
+
+    @Benchmark
+    public boolean pruneMax() throws ContradictionException {
+        env.worldPush();
+        boolean b = true;
+        for (int d = 0; d < dim && b; d++) {
+            b = kernel.pruneMax(o, d, dim, o.getRelatedInternalConstraints());
+        }
+        env.worldPop();
+        return b;
+    }
+
+    /**
+     * Filtering of o as done by filterCtrs, including the generation of its internal constraints.
+     */
+    @Benchmark
+    public boolean filterObj() throws ContradictionException {
+        env.worldPush();
+        boolean b = kernel.filterObj(dim, o.getObjectId());
+        env.worldPop();
+        return b;
+    }
+}
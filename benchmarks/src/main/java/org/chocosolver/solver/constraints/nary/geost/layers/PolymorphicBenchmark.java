@@ -0,0 +1,60 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.constraints.nary.geost.GeostInstance;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtering of a polymorphic object by {@link GeometricKernel#filterObjWP}, which evaluates every shape of the domain
+ * of the object and keeps the union of the boxes found.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolymorphicBenchmark {
+
+    @Param({"2", "3"})
+    int dim;
+
+    @Param({"16", "64"})
+    int n;
+
+    @Param({"2", "4", "8"})
+    int shapes;
+
+    private GeometricKernel kernel;
+    private IEnvironment env;
+    private GeostObject o;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GeostInstance instance = new GeostInstance(dim, n, shapes, true, 0);
+        kernel = instance.propagator.getGeometricKernel();
+        env = instance.model.getEnvironment();
+        o = instance.firstFreeObject();
+        kernel.initFrames(instance.oIDs, instance.ectrs);
+    }
+
+    @Benchmark
+    public boolean filterObjWP() throws ContradictionException {
+        env.worldPush();
+        boolean b = kernel.filterObjWP(dim, o.getObjectId());
+        env.worldPop();
+        return b;
+    }
+}
@@ -92,9 +92,9 @@ public class GeostBuilder {
         }
         PropGeost propgeost;
         if (ctrlVs == null) {
-            propgeost = new PropGeost(vars/*model variables*/, dim, objects, shiftedBoxes, eCtrs, false, opt.included, model.getSolver());
+            propgeost = new PropGeost(vars/*model variables*/, dim, objects, shiftedBoxes, eCtrs, false, opt.included, model.getSolver(), opt);
         } else {
-            propgeost = new PropGeost(vars, dim, objects, shiftedBoxes, eCtrs, ctrlVs, opt.memoisation, opt.included, opt.increment, model.getSolver());
+            propgeost = new PropGeost(vars, dim, objects, shiftedBoxes, eCtrs, ctrlVs, opt.memoisation, opt.included, opt.increment, model.getSolver(), opt);
         }
 
         return new Constraint("Geost", propgeost);
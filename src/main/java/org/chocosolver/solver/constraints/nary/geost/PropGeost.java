@@ -8,11 +8,13 @@
  */
 package org.chocosolver.solver.constraints.nary.geost;
 
+import org.chocosolver.memory.IStateBitSet;
 import org.chocosolver.memory.IStateInt;
-import org.chocosolver.solver.Solution;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.DistGeq;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.DistLeq;
 import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
 import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
 import org.chocosolver.solver.constraints.nary.geost.geometricPrim.ShiftedBox;
@@ -25,6 +27,7 @@ import org.chocosolver.solver.constraints.nary.geost.util.Pair;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 
 import java.util.HashMap;
@@ -37,7 +40,6 @@ import java.util.List;
  * @since 17/01/2014
  */
 public class PropGeost extends Propagator<IntVar> {
-    private static MutePropagationEngine fakePropagationEngine;
     /**
      * Array of objects ids.
      * initial order is not preserved in greedy mode, due to iteration over fixed objects.
@@ -58,6 +60,23 @@ public class PropGeost extends Propagator<IntVar> {
     boolean increment = false;
     List<int[]> ctrlVs;
     private final MutePropagationEngine mengine;
+    /**
+     * Objects whose variables were modified since the last filtering, given by their position in the variables
+     * (object i owns the variables i*(k+4) to i*(k+4)+k+3, see {@link GeostBuilder}).
+     */
+    private IStateBitSet modifiedObjects;
+    // the id of the object at each position
+    private int[] objectAt;
+    // the position of the first object of the distance constraint of each distance variable
+    private int[] distanceObjectAt;
+    // number of variables owned by the objects, distance variables come next
+    private int nbObjectVars;
+    // ids of the objects modified since the last filtering, nbModified is -1 when all the objects have to be filtered
+    private int[] modifiedIds;
+    private int nbModified = -1;
+    // the placement found by the greedy mode: the value of each variable, when greedyFixed is set for it
+    private int[] greedyValues;
+    private boolean[] greedyFixed;
 
     /**
      * Creates a geost constraint with the given parameters.
@@ -75,11 +94,30 @@ public class PropGeost extends Propagator<IntVar> {
                      List<ExternalConstraint> ectr, List<int[]> ctrlVs, boolean memo_active,
                      HashMap<Pair<Integer, Integer>, Boolean> included,
                      boolean increment_, Solver solver) {
+        this(vars, k, objects, shiftedBoxes, ectr, ctrlVs, memo_active, included, increment_, solver, new GeostOptions());
+    }
+
+    /**
+     * Creates a geost constraint with the given parameters.
+     *
+     * @param vars         Array of Variables for choco
+     * @param k            Dimension of the problem we are working with
+     * @param objects      A vector containing the objects (obj)
+     * @param shiftedBoxes A vector containing the shifted boxes
+     * @param ectr         A vector containing the External Constraints in our problem
+     * @param ctrlVs       A list of controlling vectors used in the greedy mode
+     * @param solver
+     * @param opt          The options of this constraint
+     */
+    public PropGeost(IntVar[] vars, int k, List<GeostObject> objects, List<ShiftedBox> shiftedBoxes,
+                     List<ExternalConstraint> ectr, List<int[]> ctrlVs, boolean memo_active,
+                     HashMap<Pair<Integer, Integer>, Boolean> included,
+                     boolean increment_, Solver solver, GeostOptions opt) {
 
-        super(vars, PropagatorPriority.VERY_SLOW, false);
+        super(vars, PropagatorPriority.VERY_SLOW, true);
 
         cst = new Constants();
-        stp = new Setup(cst, solver.getEngine(), this);
+        stp = new Setup(cst, solver.getEngine(), this, opt);
         intermediateLayer = new IntermediateLayer();
         externalLayer = new ExternalLayer(cst, stp);
         geometricKernel = new GeometricKernel(cst, stp, externalLayer, intermediateLayer, memo_active, included, solver, this);
@@ -88,6 +126,7 @@ public class PropGeost extends Propagator<IntVar> {
         this.ctrlVs = ctrlVs;
 
         stp.SetupTheProblem(objects, shiftedBoxes, ectr);
+        geometricKernel.initSmallDomains(k);
 
         //this should be changed and be provided globally to the system
         oIDs = new int[stp.getNbOfObjects()];
@@ -95,6 +134,7 @@ public class PropGeost extends Propagator<IntVar> {
             oIDs[i] = objects.get(i).getObjectId();
         }
         lastNonFixedO = solver.getEnvironment().makeInt(oIDs.length);
+        initEvents(objects, ectr, solver);
 
         this.s = solver;
         this.mengine = (MutePropagationEngine) solver.getEngine();
@@ -122,10 +162,27 @@ public class PropGeost extends Propagator<IntVar> {
     public PropGeost(IntVar[] vars, int k, List<GeostObject> objects, List<ShiftedBox> shiftedBoxes,
                      List<ExternalConstraint> ectr, boolean memo, HashMap<Pair<Integer, Integer>,
             Boolean> included, Solver solver) {
-        super(vars, PropagatorPriority.VERY_SLOW, false);
+        this(vars, k, objects, shiftedBoxes, ectr, memo, included, solver, new GeostOptions());
+    }
+
+    /**
+     * Creates a geost constraint with the given parameters.
+     *
+     * @param vars         Array of Variables for choco
+     * @param k            Dimension of the problem we are working with
+     * @param objects      A vector containing the objects (obj)
+     * @param shiftedBoxes A vector containing the shifted boxes
+     * @param ectr         A vector containing the External Constraints in our problem
+     * @param solver
+     * @param opt          The options of this constraint
+     */
+    public PropGeost(IntVar[] vars, int k, List<GeostObject> objects, List<ShiftedBox> shiftedBoxes,
+                     List<ExternalConstraint> ectr, boolean memo, HashMap<Pair<Integer, Integer>,
+            Boolean> included, Solver solver, GeostOptions opt) {
+        super(vars, PropagatorPriority.VERY_SLOW, true);
 
         cst = new Constants();
-        stp = new Setup(cst, solver.getEngine(), this);
+        stp = new Setup(cst, solver.getEngine(), this, opt);
         intermediateLayer = new IntermediateLayer();
         externalLayer = new ExternalLayer(cst, stp);
         geometricKernel = new GeometricKernel(cst, stp, externalLayer, intermediateLayer, memo, included, solver, this);
@@ -133,6 +190,7 @@ public class PropGeost extends Propagator<IntVar> {
         cst.setDIM(k);
 
         stp.SetupTheProblem(objects, shiftedBoxes, ectr);
+        geometricKernel.initSmallDomains(k);
 
         //this should be changed and be provided globally to the system
         oIDs = new int[stp.getNbOfObjects()];
@@ -140,14 +198,66 @@ public class PropGeost extends Propagator<IntVar> {
             oIDs[i] = objects.get(i).getObjectId();
         }
         lastNonFixedO = solver.getEnvironment().makeInt(oIDs.length);
+        initEvents(objects, ectr, solver);
 
         this.s = solver;
         this.mengine = (MutePropagationEngine) solver.getEngine();
     }
 
+    private void initEvents(List<GeostObject> objects, List<ExternalConstraint> ectr, Solver solver) {
+        int n = objects.size();
+        nbObjectVars = n * (cst.getDIM() + 4);
+        objectAt = new int[n];
+        HashMap<Integer, Integer> position = new HashMap<>(n);
+        for (int i = 0; i < n; i++) {
+            objectAt[i] = objects.get(i).getObjectId();
+            position.put(objectAt[i], i);
+        }
+        // same order as the distance variables in GeostBuilder
+        distanceObjectAt = new int[vars.length - nbObjectVars];
+        int ind = 0;
+        for (ExternalConstraint e : ectr) {
+            if (e instanceof DistLeq && ((DistLeq) e).hasDistanceVar()) {
+                distanceObjectAt[ind++] = position.get(((DistLeq) e).o1);
+            }
+            if (e instanceof DistGeq && ((DistGeq) e).hasDistanceVar()) {
+                distanceObjectAt[ind++] = position.get(((DistGeq) e).o1);
+            }
+        }
+        modifiedIds = new int[n];
+        modifiedObjects = solver.getEnvironment().makeBitSet(n);
+    }
+
     @Override
     public int getPropagationConditions(int vIdx) {
-        return IntEventType.ALL_EVENTS;
+        if (vIdx >= nbObjectVars) {
+            // distance variable
+            return IntEventType.boundAndInst();
+        }
+        int j = vIdx % (cst.getDIM() + 4);
+        if (j < cst.getDIM()) {
+            // the sweep only reads the bounds of the coordinates, but a polymorphic object is swept once per shape
+            // and the union of the results depends on the holes of its domains
+            if (vars[vIdx - j + cst.getDIM()].isInstantiated()) {
+                return IntEventType.boundAndInst();
+            }
+            return IntEventType.ALL_EVENTS;
+        } else if (j == cst.getDIM()) {
+            // every value of the shape id gives its own forbidden regions
+            return IntEventType.ALL_EVENTS;
+        }
+        // start, duration and end are not filtered by geost
+        return IntEventType.VOID.getMask();
+    }
+
+    @Override
+    public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+        if (idxVarInProp < nbObjectVars) {
+            modifiedObjects.set(idxVarInProp / (cst.getDIM() + 4));
+        } else {
+            modifiedObjects.set(distanceObjectAt[idxVarInProp - nbObjectVars]);
+        }
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
@@ -157,7 +267,21 @@ public class PropGeost extends Propagator<IntVar> {
         //            LOGGER.info("Geost_Constraint:propagate():vars["+i+"]:"+vars[i]+","+vars[i].getInf()+","+vars[i].getSup());
         //        LOGGER.info("----propagate");          ^
         if (stp.opt.debug) System.out.println("GeostConstraint:propagate()");
-        filter();
+        if (PropagatorEventType.isFullPropagation(evtmask)) {
+            nbModified = -1;
+        } else {
+            nbModified = 0;
+            for (int i = modifiedObjects.nextSetBit(0); i >= 0; i = modifiedObjects.nextSetBit(i + 1)) {
+                modifiedIds[nbModified++] = objectAt[i];
+            }
+        }
+        // the objects modified from now on are the ones geost has not seen yet
+        modifiedObjects.clear();
+        try {
+            filter();
+        } finally {
+            nbModified = -1;
+        }
     }
 
     @Override
@@ -168,8 +292,9 @@ public class PropGeost extends Propagator<IntVar> {
             mengine.mute();
             solver.getEnvironment().worldPush();
             try {
+                // every object is declared modified: the frames are refreshed through the trail and not rebuilt
                 b = geometricKernel.filterCtrs(cst.getDIM(), oIDs,
-                        stp.getConstraints());
+                        stp.getConstraints(), oIDs, oIDs.length);
             } catch (ContradictionException e) {
                 b = false;
             }
@@ -196,7 +321,11 @@ public class PropGeost extends Propagator<IntVar> {
         s.getEnvironment().worldPush();    //Starts a new branch in the search tree
         boolean result = false;
 
-        if (!increment) {
+        if (geometricKernel.canFixInParallel(stp.getConstraints(), this.ctrlVs)) {
+            long tmpTimeFixAllObj = System.nanoTime() / 1000000;
+            result = geometricKernel.fixAllObjsInParallel(cst.getDIM(), oIDs, stp.getConstraints(), this.ctrlVs, lastNonFixedO);
+            stp.opt.timeFixAllObj += ((System.nanoTime() / 1000000) - tmpTimeFixAllObj);
+        } else if (!increment) {
             long tmpTimeFixAllObj = System.nanoTime() / 1000000;
             result = geometricKernel.fixAllObjs(cst.getDIM(), oIDs, stp.getConstraints(), this.ctrlVs, lastNonFixedO);
             stp.opt.timeFixAllObj += ((System.nanoTime() / 1000000) - tmpTimeFixAllObj);
@@ -215,16 +344,27 @@ public class PropGeost extends Propagator<IntVar> {
 
             long tmpTime = (System.nanoTime() / 1000000);
             //s.getSearchStrategy().recordSolution();
-            Solution sol = new Solution(model, model.retrieveIntVars(true));
-            sol.record();
+            // the values of the variables of geost, not a Solution over all the variables of the model
+            if (greedyValues == null) {
+                greedyValues = new int[vars.length];
+                greedyFixed = new boolean[vars.length];
+            }
+            for (int i = 0; i < vars.length; i++) {
+                greedyFixed[i] = vars[i].isInstantiated();
+                if (greedyFixed[i]) {
+                    greedyValues[i] = vars[i].getValue();
+                }
+            }
             stp.opt.handleSolution1 += ((System.nanoTime() / 1000000) - tmpTime);
             tmpTime = (System.nanoTime() / 1000000);
             s.getEnvironment().worldPop();  //Come back to the state before propagation
             stp.opt.handleSolution2 += ((System.nanoTime() / 1000000) - tmpTime);
             tmpTime = (System.nanoTime() / 1000000);
             //s.getSearchStrategy().restoreBestSolution();
-            for (int i = 0; i < model.retrieveIntVars(true).length; i++) {
-                vars[i].instantiateTo(sol.getIntVal(vars[i]), this);
+            for (int i = 0; i < vars.length; i++) {
+                if (greedyFixed[i]) {
+                    vars[i].instantiateTo(greedyValues[i], this);
+                }
             }
             stp.opt.handleSolution3 += ((System.nanoTime() / 1000000) - tmpTime);
         }
@@ -233,8 +373,18 @@ public class PropGeost extends Propagator<IntVar> {
 
     private void filterWithoutGreedyMode() throws ContradictionException {
         if (stp.opt.debug) System.out.println("Geost_Constraint:filterWithoutGreedyMode()");
-        if (!geometricKernel.filterCtrs(cst.getDIM(), oIDs, stp.getConstraints()))
+        boolean ok;
+        if (nbModified < 0) {
+            ok = geometricKernel.filterCtrs(cst.getDIM(), oIDs, stp.getConstraints());
+        } else {
+            ok = geometricKernel.filterCtrs(cst.getDIM(), oIDs, stp.getConstraints(), modifiedIds, nbModified);
+        }
+        if (!ok)
             this.fails();
+        if (geometricKernel.hasSkippedFiltering()) {
+            // the objects were not filtered, they all have to be considered at the next call
+            modifiedObjects.set(0, objectAt.length);
+        }
     }
 
     public Constants getCst() {
@@ -257,13 +407,14 @@ public class PropGeost extends Propagator<IntVar> {
         return externalLayer;
     }
 
+    public GeometricKernel getGeometricKernel() {
+        return geometricKernel;
+    }
+
     public List<InternalConstraint> getForbiddenRegions(GeostObject o) {
 
         //Should be set up only once during a single fixpoint
-        List<ExternalConstraint> ectrs = stp.getConstraints();
-        for (int i = 0; i < ectrs.size(); i++) {
-            ectrs.get(i).setFrame(externalLayer.InitFrameExternalConstraint(ectrs.get(i), oIDs));
-        }
+        geometricKernel.initFrames(oIDs, stp.getConstraints());
 
         //TODO: Holes should be generated here
 
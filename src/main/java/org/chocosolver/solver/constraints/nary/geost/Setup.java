@@ -10,6 +10,7 @@ package org.chocosolver.solver.constraints.nary.geost;
 
 import org.chocosolver.solver.constraints.nary.geost.dataStructures.HeapAscending;
 import org.chocosolver.solver.constraints.nary.geost.dataStructures.HeapDescending;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.DistLeq;
 import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
 import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
 import org.chocosolver.solver.constraints.nary.geost.geometricPrim.ShiftedBox;
@@ -34,7 +35,7 @@ public final class Setup {
     
     private final Constants cst;
 
-    public GeostOptions opt = new GeostOptions();
+    public GeostOptions opt;
 
     public final PropagationEngine propagationEngine;
 
@@ -48,9 +49,22 @@ public final class Setup {
      * @param constraint
      */
     public Setup(Constants c, PropagationEngine propagationEngine, PropGeost constraint) {
+        this(c, propagationEngine, constraint, new GeostOptions());
+    }
+
+    /**
+     * Creates a Setup instance for a given Constants class and the options of the constraint
+     *
+     * @param c                 An instance of the constants class
+     * @param propagationEngine
+     * @param constraint
+     * @param opt               The options of the constraint, not shared with any other constraint
+     */
+    public Setup(Constants c, PropagationEngine propagationEngine, PropGeost constraint, GeostOptions opt) {
         cst = c;
         this.propagationEngine = propagationEngine;
         this.g_constraint = constraint;
+        this.opt = opt;
     }
 
     /**
@@ -58,6 +72,11 @@ public final class Setup {
      * This hashtable contains all the shapes (and their shifted boxes) of all the objects in the geost constraint.
      */
     public final Hashtable<Integer, List<ShiftedBox>> shapes = new Hashtable<>();
+
+    /**
+     * The largest size of the shifted boxes of all the shapes, in each dimension.
+     */
+    private int[] maxBoxSize = new int[0];
     /**
      * A hashtable where the key is an object_id. And for every object_id there is a pointer to the actual object.
      * This hashtable contains all the objects that goest needs to place.
@@ -81,23 +100,125 @@ public final class Setup {
      * This way we coulld extract the active internal constraints at a specific position
      */
     private final transient HeapDescending ictrMaxHeap = new HeapDescending();
+    /**
+     * The objects and the shapes of the hashtables, at their id minus the smallest id, so that getObject and getShape
+     * are plain array reads in the filtering loops. The arrays are built again after a change of the hashtables through
+     * the methods of this class, see {@link #index()}. The ids out of the range of the arrays, and all the ids when
+     * they are too sparse for an array, are looked up in the hashtables.
+     */
+    private GeostObject[] objectAt = new GeostObject[0];
+    private int objectBase;
+    private List<?>[] shapeAt = new List<?>[0];
+    private int shapeBase;
+    /**
+     * The shifted boxes of each shape, at the same index as in shapeAt, packed as {offset_0, .., offset_k-1, size_0,
+     * .., size_k-1} for each box.
+     */
+    private int[][] shapeBoxesAt = new int[0][];
+    private boolean indexed = true;
+    /**
+     * The number of each DistLeq constraint, see {@link #getDistLeqId(DistLeq)}. Kept here rather than in the
+     * constraints, which belong to the caller.
+     */
+    private final Map<DistLeq, Integer> distLeqIds = new IdentityHashMap<>();
 
 
     public void insertShape(int sid, List<ShiftedBox> shiftedBoxes) {
         shapes.put(sid, shiftedBoxes);
+        for (int i = 0; i < shiftedBoxes.size(); i++) {
+            updateMaxBoxSize(shiftedBoxes.get(i));
+        }
+        indexed = false;
     }
 
     public void insertObject(int oid, GeostObject o) {
         objects.put(oid, o);
+        indexed = false;
     }
 
 
+    @SuppressWarnings("unchecked")
     public List<ShiftedBox> getShape(int sid) {
-        return shapes.get(sid);
+        if (!indexed) {
+            index();
+        }
+        int i = sid - shapeBase;
+        return i >= 0 && i < shapeAt.length ? (List<ShiftedBox>) shapeAt[i] : shapes.get(sid);
+    }
+
+    /**
+     * Gets the shifted boxes of the shape sid packed as {offset_0, .., offset_k-1, size_0, .., size_k-1} for each
+     * box, in the order of {@link #getShape(int)}, or null if there is no such shape. The array must not be modified.
+     */
+    public int[] getShapeBoxes(int sid) {
+        if (!indexed) {
+            index();
+        }
+        int i = sid - shapeBase;
+        if (i >= 0 && i < shapeAt.length) {
+            return shapeBoxesAt[i];
+        }
+        List<ShiftedBox> sb = shapes.get(sid);
+        return sb == null ? null : pack(sb);
     }
 
     public GeostObject getObject(int oid) {
-        return objects.get(oid);
+        if (!indexed) {
+            index();
+        }
+        int i = oid - objectBase;
+        return i >= 0 && i < objectAt.length ? objectAt[i] : objects.get(oid);
+    }
+
+    /**
+     * Builds the arrays of the objects and of the shapes from the hashtables. An array is only built when the ids
+     * span at most twice as many values as there are entries, plus a few, the hashtable is used otherwise.
+     */
+    private void index() {
+        objectAt = new GeostObject[0];
+        shapeAt = new List<?>[0];
+        shapeBoxesAt = new int[0][];
+        if (isDense(objects.keySet())) {
+            objectBase = Collections.min(objects.keySet());
+            objectAt = new GeostObject[Collections.max(objects.keySet()) - objectBase + 1];
+            for (Map.Entry<Integer, GeostObject> e : objects.entrySet()) {
+                objectAt[e.getKey() - objectBase] = e.getValue();
+            }
+        }
+        if (isDense(shapes.keySet())) {
+            shapeBase = Collections.min(shapes.keySet());
+            int n = Collections.max(shapes.keySet()) - shapeBase + 1;
+            shapeAt = new List<?>[n];
+            shapeBoxesAt = new int[n][];
+            for (Map.Entry<Integer, List<ShiftedBox>> e : shapes.entrySet()) {
+                shapeAt[e.getKey() - shapeBase] = e.getValue();
+                shapeBoxesAt[e.getKey() - shapeBase] = pack(e.getValue());
+            }
+        }
+        indexed = true;
+    }
+
+    private static boolean isDense(Set<Integer> ids) {
+        if (ids.isEmpty()) {
+            return false;
+        }
+        long span = (long) Collections.max(ids) - Collections.min(ids) + 1;
+        return span <= 2L * ids.size() + 64;
+    }
+
+    private static int[] pack(List<ShiftedBox> sb) {
+        if (sb.isEmpty()) {
+            return new int[0];
+        }
+        int k = sb.get(0).getOffset().length;
+        int[] packed = new int[sb.size() * 2 * k];
+        for (int b = 0; b < sb.size(); b++) {
+            for (int j = 0; j < k; j++) {
+                packed[b * 2 * k + j] = sb.get(b).getOffset(j);
+                packed[b * 2 * k + k + j] = sb.get(b).getSize(j);
+            }
+        }
+        return packed;
     }
 
     public int getNbOfObjects() {
@@ -109,6 +230,23 @@ public final class Setup {
         return shapes.size();
     }
 
+    /**
+     * Gets the largest size, in dimension j, of a shifted box of any shape.
+     */
+    public int getMaxBoxSize(int j) {
+        return maxBoxSize[j];
+    }
+
+    private void updateMaxBoxSize(ShiftedBox sb) {
+        int[] size = sb.getSize();
+        if (maxBoxSize.length < size.length) {
+            maxBoxSize = Arrays.copyOf(maxBoxSize, size.length);
+        }
+        for (int j = 0; j < size.length; j++) {
+            maxBoxSize[j] = Math.max(maxBoxSize[j], size[j]);
+        }
+    }
+
     /**
      * This function calculates the number of the domain variables in our problem.
      */
@@ -161,12 +299,17 @@ public final class Setup {
         }
 
         for (int i = 0; i < ectr.size(); i++) {
+            if (ectr.get(i) instanceof DistLeq) {
+                // numbered within this constraint only, the same DistLeq may be given to several constraints
+                distLeqIds.putIfAbsent((DistLeq) ectr.get(i), distLeqIds.size());
+            }
             addConstraint(ectr.get(i));
             for (int j = 0; j < ectr.get(i).getObjectIds().length; j++) {
                 getObject(ectr.get(i).getObjectIds()[j]).addRelatedExternalConstraint(ectr.get(i));
             }
         }
-
+        // built here, once, rather than by the first lookup, which may come from several threads at the same time
+        index();
     }
 
     void addConstraint(ExternalConstraint ectr) {
@@ -177,6 +320,15 @@ public final class Setup {
         return constraints;
     }
 
+    /**
+     * Gets the number of a distance constraint among the DistLeq constraints of this geost constraint, from 0 in the
+     * order they were given to {@link #SetupTheProblem}, or -1 if dl was not given.
+     */
+    public int getDistLeqId(DistLeq dl) {
+        Integer id = distLeqIds.get(dl);
+        return id == null ? -1 : id;
+    }
+
     public HeapAscending getIctrMinHeap() {
         return ictrMinHeap;
     }
@@ -186,6 +338,8 @@ public final class Setup {
     }
 
     void addShiftedBox(ShiftedBox sb) {
+        updateMaxBoxSize(sb);
+        indexed = false;
         if (shapes.containsKey(sb.getShapeId())) {
             shapes.get(sb.getShapeId()).add(sb);
         } else {
@@ -200,6 +354,7 @@ public final class Setup {
             System.out.println("Trying to add an already existing object. In addObject in Setup");
         } else {
             objects.put(o.getObjectId(), o);
+            indexed = false;
         }
     }
 
@@ -364,6 +519,7 @@ public final class Setup {
         shapes.clear();
         objects.clear();
         constraints.clear();
+        indexed = false;
         ictrMinHeap.clear();
         ictrMaxHeap.clear();
     }
@@ -26,7 +26,6 @@ import java.io.ObjectOutput;
  */
 public final class DistLeq extends ExternalConstraint implements Externalizable {
 
-    public int id;
     public int D;
     public int o1;
     public int o2;
@@ -44,8 +43,6 @@ public final class DistLeq extends ExternalConstraint implements Externalizable
     {
         super(ectrID, dimensions, null);
         int[] oids = new int[1];
-        id=super.maxId; super.maxId++;
-
 
         D=D_;
         o1=objectIdentifiers[0];
@@ -115,9 +112,5 @@ public final class DistLeq extends ExternalConstraint implements Externalizable
 
     public IntVar getDistanceVar() { return DVar; }
 
-    public int getCstrId() {
-        return id;
-    }
-
     
 }
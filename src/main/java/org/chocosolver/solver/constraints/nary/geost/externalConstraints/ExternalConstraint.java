@@ -20,7 +20,6 @@ public class ExternalConstraint {
     protected int[] dim;
     protected int[] objectIds;
     protected Frame frame;
-    protected static int maxId = 0;
 
 
     public ExternalConstraint() {
@@ -9,6 +9,7 @@
 package org.chocosolver.solver.constraints.nary.geost.frames;
 
 
+import org.chocosolver.memory.IEnvironment;
 import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Region;
 
 import java.io.Externalizable;
@@ -27,6 +28,11 @@ public class Frame implements Externalizable {
 	 * Integer for the object id and the vector is the relative Forbidden Regions of every shifted box of the shapes of the object
 	 */
 	private HashMap<Integer, List<Region>> RelForbidRegions;
+
+	/**
+	 * Incremented each time the regions of an object are set, so that data computed from the frame can be checked.
+	 */
+	private int version;
 	
 	public Frame()
 	{
@@ -47,8 +53,30 @@ public class Frame implements Externalizable {
 	public final void addForbidRegions(int oid, List<Region> regions)
 	{
 		this.RelForbidRegions.put(oid, regions);
+		version++;
 	}
 	
+	/**
+	 * Replaces the regions of a given object id, the former regions are put back on backtrack.
+	 */
+	public final void setForbidRegions(int oid, List<Region> regions, IEnvironment env)
+	{
+		final List<Region> old = this.RelForbidRegions.put(oid, regions);
+		version++;
+		env.save(() -> {
+			RelForbidRegions.put(oid, old);
+			version++;
+		});
+	}
+
+	/**
+	 * Returns the number of modifications of the frame so far.
+	 */
+	public final int getVersion()
+	{
+		return version;
+	}
+
 	/**
 	 * Gets the Relative forbidden regions of a certain shape id. It returns Vector of Region object.
 	 */
@@ -74,6 +102,7 @@ public class Frame implements Externalizable {
     @SuppressWarnings({"unchecked"})
     public final void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         //To change body of implemented methods use File | Settings | File Templates.
-        RelForbidRegions=(HashMap<Integer, List<Region>>) in.readObject();        
+        RelForbidRegions=(HashMap<Integer, List<Region>>) in.readObject();
+        version++;
     }
 }
@@ -11,6 +11,7 @@ package org.chocosolver.solver.constraints.nary.geost.geometricPrim;
 import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
 import org.chocosolver.solver.constraints.nary.geost.internalConstraints.InternalConstraint;
 import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.OutboxArena;
 import org.chocosolver.solver.variables.IntVar;
 
 import java.io.Externalizable;
@@ -34,6 +35,7 @@ public final class GeostObject implements Externalizable {
     private IntVar end;
     private List<ExternalConstraint> relatedExternalConstraints;
     private List<InternalConstraint> relatedInternalConstraints;
+    private OutboxArena outboxes;
     private int dim;
     private int radius;
 
@@ -332,6 +334,20 @@ public final class GeostObject implements Externalizable {
 
     public void clearInternalConstraints() {
         this.relatedInternalConstraints.clear();
+        if (this.outboxes != null) {
+            this.outboxes.clear();
+        }
+    }
+
+    /**
+     * Gets the outboxes of the Related Internal Constraints packed in an arena. It is filled when the internal
+     * constraints are generated and emptied by {@link #clearInternalConstraints()}.
+     */
+    public OutboxArena getOutboxArena() {
+        if (this.outboxes == null) {
+            this.outboxes = new OutboxArena();
+        }
+        return this.outboxes;
     }
 
     public void writeExternal(ObjectOutput out) throws IOException {
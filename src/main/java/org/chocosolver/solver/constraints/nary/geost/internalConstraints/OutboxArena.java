@@ -0,0 +1,133 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.internalConstraints;
+
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A packed store of outboxes. The extent of every outbox is copied into a single flat array, box after box: first the
+ * k offsets t, then the k largest forbidden values t+l-1. Testing whether a point lies in a box then reads 2k
+ * contiguous integers and does not create any object.
+ * <p>
+ * The arena keeps a reference to each packed Outbox so that the box found by a containment test can be returned to
+ * the caller.
+ */
+public final class OutboxArena {
+
+    private int k = -1;
+    private int size;
+    private int[] bounds = new int[0];
+    private Outbox[] boxes = new Outbox[0];
+
+    /**
+     * Removes all the outboxes of the arena, the underlying arrays are kept for the next use.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            boxes[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Appends an outbox at the end of the arena.
+     */
+    public void add(Outbox ob) {
+        int[] t = ob.getT();
+        if (k == -1) {
+            k = t.length;
+        }
+        if (size == boxes.length) {
+            int capacity = Math.max(8, size * 2);
+            boxes = Arrays.copyOf(boxes, capacity);
+            bounds = Arrays.copyOf(bounds, capacity * 2 * k);
+        }
+        int base = size * 2 * k;
+        for (int j = 0; j < k; j++) {
+            bounds[base + j] = t[j];
+            bounds[base + k + j] = t[j] + ob.getL(j) - 1;
+        }
+        boxes[size++] = ob;
+    }
+
+    /**
+     * Removes the last outbox of the arena.
+     */
+    public void removeLast() {
+        boxes[--size] = null;
+    }
+
+    /**
+     * Appends all the outboxes of ictrs, the other internal constraints are ignored.
+     */
+    public void addAll(List<InternalConstraint> ictrs) {
+        for (int i = 0; i < ictrs.size(); i++) {
+            InternalConstraint ictr = ictrs.get(i);
+            if (ictr instanceof Outbox) {
+                add((Outbox) ictr);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Outbox get(int b) {
+        return boxes[b];
+    }
+
+    /**
+     * Returns the smallest forbidden value of box b in dimension j.
+     */
+    public int getMin(int b, int j) {
+        return bounds[b * 2 * k + j];
+    }
+
+    /**
+     * Returns the largest forbidden value of box b in dimension j.
+     */
+    public int getMax(int b, int j) {
+        return bounds[b * 2 * k + k + j];
+    }
+
+    /**
+     * Checks whether the point p belongs to box b.
+     */
+    public boolean contains(int b, int[] p) {
+        int base = b * 2 * k;
+        int out = 0;
+        for (int j = 0; j < k; j++) {
+            // negative as soon as p[j] is before the box or after it; bounds of choco variables cannot overflow here
+            out |= (p[j] - bounds[base + j]) | (bounds[base + k + j] - p[j]);
+        }
+        return out >= 0;
+    }
+
+    /**
+     * Returns the index of the first box containing c, or -1 if c is outside all the boxes.
+     */
+    public int findContaining(Point c) {
+        int[] p = c.getCoords();
+        int stride = 2 * k;
+        for (int b = 0, base = 0; b < size; b++, base += stride) {
+            int out = 0;
+            for (int j = 0; j < k; j++) {
+                out |= (p[j] - bounds[base + j]) | (bounds[base + k + j] - p[j]);
+            }
+            if (out >= 0) {
+                return b;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.internalConstraints;
+
+import org.chocosolver.solver.constraints.nary.geost.GeostOptions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rewrites the outboxes of an object into fewer, larger boxes covering exactly the same points. Only the union of the
+ * outboxes matters to the sweep, whereas the time it spends looking for a box containing the sweep point grows with
+ * their number.
+ * <p>
+ * The outboxes are swept along each dimension d in turn: they are sorted by their extent in the other dimensions, then
+ * by their offset in d, and the boxes with the same extent in the other dimensions which overlap or touch in d are
+ * merged into one. Merging along d can make boxes equal in another dimension, so the sweeps are repeated until no box
+ * is merged. Unlike {@link Outbox#merge}, which only looks at the last box generated, any two boxes can be merged.
+ * <p>
+ * In two dimensions, the boxes contained in another box are removed before the sweeps, and once more after them if some
+ * boxes were merged. In one dimension the sweeps already remove them. In three dimensions and more, the boxes to compare
+ * with each box are too many: the comparisons cost more time than the smaller number of boxes saves to the sweep, so
+ * contained boxes are only removed when the sweeps merge them.
+ * <p>
+ * Two boxes which overlap without one containing the other, and whose extents differ in more than one dimension, are
+ * kept as they are: their union is not a box, and cutting them into disjoint boxes would not make them fewer. The
+ * result is thus not always the smallest set of boxes covering the union.
+ * <p>
+ * An instance keeps its buffers from one call to the next and must not be shared between threads.
+ */
+public final class OutboxCoalescer {
+
+    private int k;
+    private int n;
+    // smallest and largest forbidden values of the boxes, k by k
+    private int[] lo = new int[0];
+    private int[] hi = new int[0];
+    private boolean[] dead = new boolean[0];
+    private int[] idx = new int[0];
+    private int[] tmp = new int[0];
+
+    private long before;
+    private long after;
+
+    /**
+     * Coalesces the outboxes of ictrs. When some boxes are merged, the outboxes of ictrs are replaced by the merged
+     * ones, which come after the other internal constraints, and arena, if not null, is rebuilt from ictrs.
+     */
+    public void coalesce(List<InternalConstraint> ictrs, OutboxArena arena) {
+        load(ictrs);
+        before += n;
+        int size = n;
+        if (size > 1) {
+            if (k == 2) {
+                size -= removeContained();
+            }
+            int loaded = size;
+            boolean merged = true;
+            while (merged) {
+                merged = false;
+                for (int d = 0; d < k; d++) {
+                    int m = sweep(d);
+                    if (m > 0) {
+                        size -= m;
+                        merged = true;
+                    }
+                }
+                if (k == 1) {
+                    break;
+                }
+            }
+            if (k == 2 && size < loaded) {
+                // the merged boxes can contain boxes which were not contained in any box before
+                size -= removeContained();
+            }
+        }
+        after += size;
+        if (size == n) {
+            return;
+        }
+        int w = 0;
+        for (int i = 0; i < ictrs.size(); i++) {
+            InternalConstraint ictr = ictrs.get(i);
+            if (!(ictr instanceof Outbox)) {
+                ictrs.set(w++, ictr);
+            }
+        }
+        ictrs.subList(w, ictrs.size()).clear();
+        for (int b = 0; b < n; b++) {
+            if (!dead[b]) {
+                int[] t = new int[k];
+                int[] l = new int[k];
+                for (int j = 0; j < k; j++) {
+                    t[j] = lo[b * k + j];
+                    l[j] = hi[b * k + j] - t[j] + 1;
+                }
+                ictrs.add(new Outbox(t, l));
+            }
+        }
+        if (arena != null) {
+            arena.clear();
+            arena.addAll(ictrs);
+        }
+    }
+
+    /**
+     * Adds the number of outboxes seen and kept since the last call to the statistics of opt.
+     */
+    public void reportTo(GeostOptions opt) {
+        opt.outboxesBeforeCoalescing += before;
+        opt.outboxesAfterCoalescing += after;
+        before = 0;
+        after = 0;
+    }
+
+    private void load(List<InternalConstraint> ictrs) {
+        n = 0;
+        for (int i = 0; i < ictrs.size(); i++) {
+            if (ictrs.get(i) instanceof Outbox) {
+                Outbox ob = (Outbox) ictrs.get(i);
+                if (n == 0) {
+                    k = ob.getT().length;
+                }
+                if ((n + 1) * k > lo.length) {
+                    int capacity = Math.max(16, n * 2);
+                    lo = Arrays.copyOf(lo, capacity * k);
+                    hi = Arrays.copyOf(hi, capacity * k);
+                    dead = new boolean[capacity];
+                    idx = new int[capacity];
+                    tmp = new int[capacity];
+                }
+                for (int j = 0; j < k; j++) {
+                    lo[n * k + j] = ob.getT(j);
+                    hi[n * k + j] = ob.getT(j) + ob.getL(j) - 1;
+                }
+                n++;
+            }
+        }
+        Arrays.fill(dead, 0, n, false);
+    }
+
+    /**
+     * Merges the boxes which only differ in dimension d and overlap or touch in d.
+     *
+     * @return the number of boxes removed
+     */
+    private int sweep(int d) {
+        int m = alive();
+        sort(d, 0, m);
+        int removed = 0;
+        int cur = idx[0];
+        for (int p = 1; p < m; p++) {
+            int b = idx[p];
+            // long, since the boxes can end at the largest int
+            if (sameSection(cur, b, d) && lo[b * k + d] <= (long) hi[cur * k + d] + 1) {
+                hi[cur * k + d] = Math.max(hi[cur * k + d], hi[b * k + d]);
+                dead[b] = true;
+                removed++;
+            } else {
+                cur = b;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the boxes contained in another box. The boxes are ordered by their offset in dimension 0 first, so that a
+     * box only has to be compared with the boxes which start before its end in dimension 0.
+     *
+     * @return the number of boxes removed
+     */
+    private int removeContained() {
+        int m = alive();
+        sort(k - 1, 0, m);
+        int removed = 0;
+        for (int p = 0; p < m; p++) {
+            int a = idx[p];
+            for (int q = p + 1; q < m && !dead[a] && lo[idx[q] * k] <= hi[a * k]; q++) {
+                int b = idx[q];
+                if (dead[b]) {
+                    continue;
+                }
+                if (contains(a, b)) {
+                    dead[b] = true;
+                    removed++;
+                } else if (lo[b * k] == lo[a * k] && contains(b, a)) {
+                    // only a box with the same offset in dimension 0 can contain a box ordered before it
+                    dead[a] = true;
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Puts the boxes not removed yet in idx.
+     *
+     * @return their number
+     */
+    private int alive() {
+        int m = 0;
+        for (int b = 0; b < n; b++) {
+            if (!dead[b]) {
+                idx[m++] = b;
+            }
+        }
+        return m;
+    }
+
+    private boolean contains(int a, int b) {
+        for (int j = 0; j < k; j++) {
+            if (lo[b * k + j] < lo[a * k + j] || hi[a * k + j] < hi[b * k + j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameSection(int a, int b, int d) {
+        for (int j = 0; j < k; j++) {
+            if (j != d && (lo[a * k + j] != lo[b * k + j] || hi[a * k + j] != hi[b * k + j])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Orders the boxes by their extent in the dimensions other than d, then by their offset in d.
+     */
+    private int compare(int a, int b, int d) {
+        for (int j = 0; j < k; j++) {
+            if (j != d) {
+                int c = Integer.compare(lo[a * k + j], lo[b * k + j]);
+                if (c == 0) {
+                    c = Integer.compare(hi[a * k + j], hi[b * k + j]);
+                }
+                if (c != 0) {
+                    return c;
+                }
+            }
+        }
+        return Integer.compare(lo[a * k + d], lo[b * k + d]);
+    }
+
+    /**
+     * Merge sort of idx[from..to), with tmp as buffer.
+     */
+    private void sort(int d, int from, int to) {
+        if (to - from < 8) {
+            for (int i = from + 1; i < to; i++) {
+                int b = idx[i];
+                int p = i - 1;
+                while (p >= from && compare(idx[p], b, d) > 0) {
+                    idx[p + 1] = idx[p];
+                    p--;
+                }
+                idx[p + 1] = b;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(d, from, mid);
+        sort(d, mid, to);
+        if (compare(idx[mid - 1], idx[mid], d) <= 0) {
+            return;
+        }
+        System.arraycopy(idx, from, tmp, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int p = from; p < to; p++) {
+            if (j >= to || (i < mid && compare(tmp[i], tmp[j], d) <= 0)) {
+                idx[p] = tmp[i++];
+            } else {
+                idx[p] = tmp[j++];
+            }
+        }
+    }
+}
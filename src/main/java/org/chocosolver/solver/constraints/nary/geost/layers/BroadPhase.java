@@ -0,0 +1,172 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.frames.Frame;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Region;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Sort-and-sweep over the relative forbidden regions of a frame. The regions of each object are enclosed in a
+ * bounding box and the boxes are sorted along one axis. Given the area an object can reach, the objects whose
+ * regions may produce an outbox for it are found with two binary searches, instead of looking at every object of
+ * the frame.
+ * <p>
+ * The structure is a snapshot of a frame: it has to be rebuilt when the frame is modified, see {@link #isBuiltFor}.
+ */
+final class BroadPhase {
+
+    /**
+     * Below this number of objects in the frame, the broad phase is not worth it.
+     */
+    static final int MIN_SIZE = 16;
+
+    private final int k;
+    private Frame frame;
+    private int version;
+
+    // objects of the frame, in the iteration order of the frame
+    private int n;
+    private int[] oids = new int[0];
+    private int[] boxMin = new int[0];
+    private int[] boxMax = new int[0];
+
+    // positions of the objects with at least one region, sorted on the lower bound of their box along axis
+    private int axis;
+    private int nbSorted;
+    private int[] sorted = new int[0];
+    private int[] sortedMin = new int[0];
+    private long maxWidth;
+
+    private long[] keys = new long[0];
+
+    BroadPhase(int k) {
+        this.k = k;
+    }
+
+    /**
+     * Checks that the broad phase was built from <code>f</code> and that the frame was not modified since.
+     */
+    boolean isBuiltFor(Frame f) {
+        return frame == f && version == f.getVersion();
+    }
+
+    void build(Frame f) {
+        frame = f;
+        version = f.getVersion();
+        n = f.size();
+        if (oids.length < n) {
+            oids = new int[n];
+            boxMin = new int[n * k];
+            boxMax = new int[n * k];
+            sorted = new int[n];
+            sortedMin = new int[n];
+            keys = new long[n];
+        }
+        int[] lowest = new int[k];
+        int[] highest = new int[k];
+        Arrays.fill(lowest, Integer.MAX_VALUE);
+        Arrays.fill(highest, Integer.MIN_VALUE);
+        nbSorted = 0;
+        Iterator<Integer> itr = f.getRelForbidRegions().keySet().iterator();
+        for (int p = 0; p < n; p++) {
+            int oid = itr.next();
+            oids[p] = oid;
+            List<Region> regions = f.getRelForbidRegions(oid);
+            if (regions.isEmpty()) {
+                continue;
+            }
+            for (int j = 0; j < k; j++) {
+                int min = Integer.MAX_VALUE;
+                int max = Integer.MIN_VALUE;
+                for (int l = 0; l < regions.size(); l++) {
+                    min = Math.min(min, regions.get(l).getMinimumBoundary(j));
+                    max = Math.max(max, regions.get(l).getMaximumBoundary(j));
+                }
+                boxMin[p * k + j] = min;
+                boxMax[p * k + j] = max;
+                lowest[j] = Math.min(lowest[j], min);
+                highest[j] = Math.max(highest[j], max);
+            }
+            keys[nbSorted++] = p;
+        }
+        // sweep along the axis where the objects are the most spread out
+        axis = 0;
+        for (int j = 1; j < k; j++) {
+            if ((long) highest[j] - lowest[j] > (long) highest[axis] - lowest[axis]) {
+                axis = j;
+            }
+        }
+        maxWidth = 0;
+        for (int s = 0; s < nbSorted; s++) {
+            int p = (int) keys[s];
+            keys[s] = ((long) boxMin[p * k + axis] << 32) | p;
+            maxWidth = Math.max(maxWidth, (long) boxMax[p * k + axis] - boxMin[p * k + axis]);
+        }
+        Arrays.sort(keys, 0, nbSorted);
+        for (int s = 0; s < nbSorted; s++) {
+            sorted[s] = (int) keys[s];
+            sortedMin[s] = (int) (keys[s] >> 32);
+        }
+    }
+
+    /**
+     * Returns the objects, other than <code>self</code>, whose box intersects [reachMin, reachMax] in every
+     * dimension. They are given in the iteration order of the frame. Queries do not modify the broad phase and can be
+     * run concurrently.
+     */
+    int[] query(int[] reachMin, int[] reachMax, int self) {
+        // a box starting before reachMin - maxWidth ends before reachMin
+        int from = lowerBound(reachMin[axis] - maxWidth);
+        int to = lowerBound(reachMax[axis] + 1L);
+        int[] candidates = new int[to - from];
+        int nb = 0;
+        for (int s = from; s < to; s++) {
+            int p = sorted[s];
+            if (oids[p] != self && intersects(p, reachMin, reachMax)) {
+                candidates[nb++] = p;
+            }
+        }
+        Arrays.sort(candidates, 0, nb);
+        for (int c = 0; c < nb; c++) {
+            candidates[c] = oids[candidates[c]];
+        }
+        return nb == candidates.length ? candidates : Arrays.copyOf(candidates, nb);
+    }
+
+    private boolean intersects(int p, int[] reachMin, int[] reachMax) {
+        int base = p * k;
+        for (int j = 0; j < k; j++) {
+            if (boxMin[base + j] > reachMax[j] || boxMax[base + j] < reachMin[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first position in sorted whose lower bound is greater than or equal to v.
+     */
+    private int lowerBound(long v) {
+        int lo = 0;
+        int hi = nbSorted;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedMin[mid] < v) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
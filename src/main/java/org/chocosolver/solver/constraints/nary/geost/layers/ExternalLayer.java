@@ -10,6 +10,7 @@ package org.chocosolver.solver.constraints.nary.geost.layers;
 
 
 import org.chocosolver.solver.constraints.nary.geost.Constants;
+import org.chocosolver.solver.constraints.nary.geost.GeostOptions;
 import org.chocosolver.solver.constraints.nary.geost.Setup;
 import org.chocosolver.solver.constraints.nary.geost.externalConstraints.*;
 import org.chocosolver.solver.constraints.nary.geost.frames.DistLinearFrame;
@@ -22,10 +23,14 @@ import org.chocosolver.solver.constraints.nary.geost.geometricPrim.ShiftedBox;
 import org.chocosolver.solver.constraints.nary.geost.internalConstraints.*;
 import org.chocosolver.solver.constraints.nary.geost.util.Pair;
 import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -36,6 +41,9 @@ public final class ExternalLayer {
 
     Constants cst;
     Setup stp;
+    // broad phase of the large frames of each non overlapping constraint
+    private final Map<ExternalConstraint, BroadPhase> broadPhases = new IdentityHashMap<>();
+    private final MinkowskiCache minkowski = new MinkowskiCache();
 
     /**
      * Creates an ExternalLayer instance for a specific constants class and a specific setup class
@@ -90,9 +98,31 @@ public final class ExternalLayer {
     /**
      * @param ectr An externalConstraint object
      * @param o    An object
-     * @return A vector containing all the internal constraints that are applied to o caused by ectr
+     * @return A vector containing all the internal constraints that are applied to o caused by ectr. The outboxes are
+     *         never clipped, so that they remain valid once the domain of o is relaxed.
      */
     public List<InternalConstraint> genInternalCtrs(ExternalConstraint ectr, GeostObject o) {
+        return genInternalCtrs(ectr, o, o.getShapeId().getLB(), null, false);
+    }
+
+    /**
+     * Same as {@link #genInternalCtrs(ExternalConstraint, GeostObject)}, the generated outboxes are also appended to
+     * <code>packed</code> when it is not null. The outboxes are clipped to the current domain of o when
+     * {@link GeostOptions#clipping} is set, they are then only valid while the domain of o does not grow.
+     */
+    public List<InternalConstraint> genInternalCtrs(ExternalConstraint ectr, GeostObject o, OutboxArena packed) {
+        return genInternalCtrs(ectr, o, o.getShapeId().getLB(), packed);
+    }
+
+    /**
+     * Same as {@link #genInternalCtrs(ExternalConstraint, GeostObject, OutboxArena)} as if the shape of o was sid,
+     * whatever the domain of its shape variable. Nothing is modified but the returned list and packed.
+     */
+    public List<InternalConstraint> genInternalCtrs(ExternalConstraint ectr, GeostObject o, int sid, OutboxArena packed) {
+        return genInternalCtrs(ectr, o, sid, packed, stp.opt.clipping);
+    }
+
+    private List<InternalConstraint> genInternalCtrs(ExternalConstraint ectr, GeostObject o, int sid, OutboxArena packed, boolean clip) {
         List<InternalConstraint> result;
         switch (ectr.getEctrID()) {
             case Constants.COMPATIBLE:
@@ -102,7 +132,7 @@ public final class ExternalLayer {
                 result = genInternalCtrsForIncluded();
                 break;
             case Constants.NON_OVERLAPPING:
-                result = genInternalCtrsForNonOverlapping((NonOverlapping) ectr, o);
+                result = genInternalCtrsForNonOverlapping((NonOverlapping) ectr, o, sid, packed, clip);
                 break;
             case Constants.VISIBLE:
                 result = genInternalCtrsForVisible();
@@ -135,58 +165,112 @@ public final class ExternalLayer {
 
     private Frame initFrameExternalConstraintForNonOverlapping(int[] oIDs) {
         NonOverlappingFrame f = new NonOverlappingFrame();
+        int k = cst.getDIM();
         for (int i = 0; i < oIDs.length; i++) {
             GeostObject o = stp.getObject(oIDs[i]);
-            int m = o.getShapeId().getDomainSize();
-
-            List<Region> regions = new ArrayList<>();
-
-            int[][] set = new int[m][];
-            int ivalue = 0;
-            for (int sid = o.getShapeId().getLB(); sid <= o.getShapeId().getUB(); sid = o.getShapeId().nextValue(sid)) {
-                int nbOfSbox = stp.getShape(sid).size();
-                set[ivalue] = new int[nbOfSbox];
-                for (int j = 0; j < nbOfSbox; j++) {
-                    set[ivalue][j] = j;
+            IntVar shape = o.getShapeId();
+            int[] sids = new int[shape.getDomainSize()];
+            for (int sid = shape.getLB(), p = 0; sid <= shape.getUB(); sid = shape.nextValue(sid), p++) {
+                sids[p] = sid;
+            }
+            int[] width = new int[k];
+            for (int j = 0; j < k; j++) {
+                width[j] = o.getCoord(j).getUB() - o.getCoord(j).getLB();
+            }
+            List<int[]> common = intersectShapes(sids, width);
+            List<Region> regions = new ArrayList<>(common.size());
+            for (int c = 0; c < common.size(); c++) {
+                Region r = new Region(k, o.getObjectId());
+                for (int j = 0; j < k; j++) {
+                    r.setMinimumBoundary(j, o.getCoord(j).getUB() + common.get(c)[j] + 1);
+                    r.setMaximumBoundary(j, o.getCoord(j).getLB() + common.get(c)[k + j] - 1);
                 }
-                ivalue++;
+                regions.add(r);
             }
+            f.addForbidRegions(o.getObjectId(), regions);
+        }
+        return f;
+    }
 
-            int[] pointer = new int[m];
-            boolean print = true;
-            while (true) {
-                Region r = new Region(cst.getDIM(), o.getObjectId());
-                for (int j = 0; j < cst.getDIM(); j++) {
-                    int max = stp.getShape(o.getShapeId().getLB()).get(set[0][pointer[0]]).getOffset(j);
-                    int min = stp.getShape(o.getShapeId().getLB()).get(set[0][pointer[0]]).getOffset(j) + stp.getShape(o.getShapeId().getLB()).get(set[0][pointer[0]]).getSize(j);
-                    int curDomVal = o.getShapeId().nextValue(o.getShapeId().getLB());
-                    for (int s = 1; s < m; s++) {
-                        max = Math.max(max, stp.getShape(curDomVal).get(set[s][pointer[s]]).getOffset(j));
-                        min = Math.min(min, stp.getShape(curDomVal).get(set[s][pointer[s]]).getOffset(j) + stp.getShape(curDomVal).get(set[s][pointer[s]]).getSize(j));
-                        curDomVal = o.getShapeId().nextValue(curDomVal);
+    /**
+     * Computes the parts that the shapes sids of an object have in common, that is the intersections of one shifted
+     * box taken in each shape. An intersection is given by the greatest offset and the smallest end of its boxes in
+     * each dimension: {lo_0, .., lo_k-1, hi_0, .., hi_k-1}. width gives, in each dimension, the difference between the
+     * upper and the lower bound of the coordinate of the object.
+     * <p>
+     * Instead of enumerating every combination of boxes, the shapes are intersected one after the other and the
+     * partial intersections are pruned as they go, since adding a shape can only shrink them. An intersection is
+     * dropped when it cannot give any outbox in genOutboxes, whatever the shifted box of the other object, or when it
+     * is included in another one. None of them changes the placements forbidden by the frame.
+     */
+    private List<int[]> intersectShapes(int[] sids, int[] width) {
+        int k = cst.getDIM();
+        int[] all = new int[2 * k];
+        Arrays.fill(all, 0, k, Integer.MIN_VALUE);
+        Arrays.fill(all, k, 2 * k, Integer.MAX_VALUE);
+        List<int[]> common = new ArrayList<>(1);
+        common.add(all);
+        for (int sid : sids) {
+            int[] boxes = stp.getShapeBoxes(sid);
+            List<int[]> next = new ArrayList<>(common.size() * boxes.length / (2 * k));
+            for (int c = 0; c < common.size(); c++) {
+                int[] cc = common.get(c);
+                for (int p = 0; p < boxes.length; p += 2 * k) {
+                    int[] n = new int[2 * k];
+                    for (int j = 0; j < k; j++) {
+                        n[j] = Math.max(cc[j], boxes[p + j]);
+                        n[k + j] = Math.min(cc[k + j], boxes[p + j] + boxes[p + k + j]);
                     }
-                    r.setMinimumBoundary(j, o.getCoord(j).getUB() + max + 1);
-                    r.setMaximumBoundary(j, o.getCoord(j).getLB() + min - 1);
-                }
-                regions.add(r);
-                for (int j = m - 1; j >= 0; j--) {
-                    if (pointer[j] == set[j].length - 1) {
-                        if (j == 0) {
-                            print = false;
-                        }
-                        pointer[j] = 0;
-                    } else {
-                        pointer[j] += 1;
-                        break;
+                    if (!isUseless(width, n)) {
+                        next.add(n);
                     }
                 }
-                if (!print) {
-                    break;
-                }
             }
-            f.addForbidRegions(o.getObjectId(), regions);
+            common = removeIncluded(next);
         }
-        return f;
+        return common;
+    }
+
+    /**
+     * Checks whether the region built from the intersection c is too small in some dimension to give an outbox for a
+     * shifted box of any size, see the length s computed in genOutboxes.
+     */
+    private boolean isUseless(int[] width, int[] c) {
+        int k = cst.getDIM();
+        for (int j = 0; j < k; j++) {
+            if (c[k + j] - c[j] - 1 - width[j] + stp.getMaxBoxSize(j) <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the intersections included in another one of the list, the first of several equal ones is kept.
+     */
+    private List<int[]> removeIncluded(List<int[]> boxes) {
+        List<int[]> kept = new ArrayList<>(boxes.size());
+        for (int a = 0; a < boxes.size(); a++) {
+            boolean included = false;
+            for (int b = 0; b < boxes.size() && !included; b++) {
+                included = b != a && includes(boxes.get(b), boxes.get(a))
+                        && (b < a || !includes(boxes.get(a), boxes.get(b)));
+            }
+            if (!included) {
+                kept.add(boxes.get(a));
+            }
+        }
+        return kept;
+    }
+
+    private boolean includes(int[] outer, int[] inner) {
+        int k = cst.getDIM();
+        for (int j = 0; j < k; j++) {
+            if (outer[j] > inner[j] || outer[k + j] < inner[k + j]) {
+                return false;
+            }
+        }
+        return true;
     }
 
 
@@ -268,93 +352,275 @@ public final class ExternalLayer {
     }
 
 
-    private List<InternalConstraint> genInternalCtrsForNonOverlapping(NonOverlapping ectr, GeostObject o) {
+    private List<InternalConstraint> genInternalCtrsForNonOverlapping(NonOverlapping ectr, GeostObject o, int sid, OutboxArena packed, boolean clip) {
 
         // Since non_overlapping constraint then we will generate outbox constraints
         List<InternalConstraint> ictrs = new ArrayList<InternalConstraint>();
-        List<ShiftedBox> sb = stp.getShape(o.getShapeId().getLB());
-        Iterator<Integer> itr;
-        itr = ectr.getFrame().getRelForbidRegions().keySet().iterator();
-        boolean printit = false;
-        while (itr.hasNext()) {
-            int i = itr.next();
-            if (!(o.getObjectId() == i)) {
-                for (int k = 0; k < sb.size(); k++) {
-                    // We will generate an outbox constraint corresponding to each relative forbidden region we already generated
-                    // for the shifted boxes of the shape corresponding to the Obj o
-
-                    // here we go into the relative forbidden regions
-                    loop:
-                    for (int l = 0; l < ectr.getFrame().getRelForbidRegions(i).size(); l++) {
-                        int[] t = new int[cst.getDIM()];
-                        int[] s = new int[cst.getDIM()];
-                        for (int j = 0; j < cst.getDIM(); j++) {
-                            int min = ectr.getFrame().getRelForbidRegions(i).get(l).getMinimumBoundary(j) - sb.get(k).getOffset(j) - sb.get(k).getSize(j);
-                            int max = ectr.getFrame().getRelForbidRegions(i).get(l).getMaximumBoundary(j) - sb.get(k).getOffset(j);
-
-                            s[j] = max - min + 1; // length of the jth coordinate
-                            if (s[j] <= 0) // since the length is negative
-                                continue loop;
-                            t[j] = min; // It is the offset. lower left corner.
-
-                            if (printit) System.out.println(o.getObjectId() + " " + j + " " + o);
-                            int supDom = o.getCoord(j).getUB();// + sb.get(k).getOffset(j) + sb.get(k).getSize(j);
-                            int infDom = o.getCoord(j).getLB();// + sb.get(k).getOffset(j) ;
-                            int maxObj = o.getCoord(j).getUB() + sb.get(k).getOffset(j) + sb.get(k).getSize(j) - 1;
-                            if (maxObj > o.getCoord(j).getUB()) maxObj = o.getCoord(j).getUB();
-                            int minObj = o.getCoord(j).getLB() + sb.get(k).getOffset(j);
-                            if (minObj < o.getCoord(j).getLB()) minObj = o.getCoord(j).getLB();
-
-                            if (printit) System.out.println("box: " + t[j] + " " + s[j]);
-                            if (printit) System.out.println("dom: " + minObj + " " + maxObj);
-
-
-                            if ((supDom < t[j]) || (infDom > t[j] + s[j])) {
-                                // this means the intersection of dom(o.x) and the region forbidden region associated with Outbox(t,s) is empty. In the other words all
-                                // the placement space is feasible for o.x according to the constraint Outbox(t,s)
-                                if (printit) System.out.println("skip");
-                                continue loop;
-                            }
-                            if ((maxObj < t[j]) || (minObj > t[j] + s[j])) {
-                                // this means the intersection of dom(o.x) and the region forbidden region associated with Outbox(t,s) is empty. In the other words all
-                                // the placement space is feasible for o.x according to the constraint Outbox(t,s)
-                                if (printit) System.out.println("skip2");
-                                continue loop;
-                            }
-
-                            //clipping
-                            if (stp.opt.clipping) {
-                                //   t[j] = Math.max(minObj, t[j]);
-                                //     s[j] = Math.min(maxObj, t[j] + s[j]) - t[j]  ;
-                            }
-
-                            if (printit) System.out.println("result box: " + t[j] + " " + s[j]);
-
-
-                        }
-
-                        Outbox new_ob = new Outbox(t, s);
-
-
-                        Pair<Outbox, Boolean> result;
-                        if (ictrs.size() != 0) {
-                            Outbox last_ob = (Outbox) ictrs.get(ictrs.size() - 1);
-                            result = mergeAdjacent(new_ob, last_ob);
-
-                            new_ob = result.fst;
-
-                            if (result.snd) ictrs.remove(ictrs.size() - 1);
-
-                        }
-
-                        ictrs.add(new_ob);
-                    }
+        List<ShiftedBox> sb = stp.getShape(sid);
+        int[] domain = domainOf(o);
+        BroadPhase bp = getBroadPhase(ectr);
+        if (bp == null) {
+            Iterator<Integer> itr;
+            itr = ectr.getFrame().getRelForbidRegions().keySet().iterator();
+            while (itr.hasNext()) {
+                int i = itr.next();
+                if (!(o.getObjectId() == i)) {
+                    genOutboxes(ectr, o, sid, sb, domain, i, ictrs, packed, clip);
                 }
             }
+        } else {
+            // only the objects whose regions can meet the area reachable by a shifted box of o are considered, the
+            // others would only produce outboxes skipped below
+            int dim = cst.getDIM();
+            int[] boxes = stp.getShapeBoxes(sid);
+            int[] reachMin = new int[dim];
+            int[] reachMax = new int[dim];
+            for (int j = 0; j < dim; j++) {
+                int minOffset = Integer.MAX_VALUE;
+                int maxEnd = Integer.MIN_VALUE;
+                for (int p = 0; p < boxes.length; p += 2 * dim) {
+                    minOffset = Math.min(minOffset, boxes[p + j]);
+                    maxEnd = Math.max(maxEnd, boxes[p + j] + boxes[p + dim + j]);
+                }
+                reachMin[j] = domain[j] + minOffset - 1;
+                reachMax[j] = domain[dim + j] + maxEnd;
+            }
+            for (int i : bp.query(reachMin, reachMax, o.getObjectId())) {
+                genOutboxes(ectr, o, sid, sb, domain, i, ictrs, packed, clip);
+            }
         }
         return ictrs;
     }
 
+    /**
+     * Returns the broad phase of the frame of ectr, or null when the frame is too small to need one. Synchronized
+     * since the internal constraints of several objects may be generated at the same time, see {@link SweepWorker}.
+     */
+    private synchronized BroadPhase getBroadPhase(NonOverlapping ectr) {
+        Frame f = ectr.getFrame();
+        if (f.size() < BroadPhase.MIN_SIZE) {
+            return null;
+        }
+        BroadPhase bp = broadPhases.get(ectr);
+        if (bp == null) {
+            bp = new BroadPhase(cst.getDIM());
+            broadPhases.put(ectr, bp);
+        }
+        if (!bp.isBuiltFor(f)) {
+            bp.build(f);
+        }
+        return bp;
+    }
+
+    /**
+     * Generates the outboxes of o, placed with shape sid, with respect to the relative forbidden regions of object i.
+     * The outboxes which do not meet the domain of o are left out, the others are clipped to it when clip is set.
+     */
+    private void genOutboxes(NonOverlapping ectr, GeostObject o, int sid, List<ShiftedBox> sb, int[] domain, int i, List<InternalConstraint> ictrs, OutboxArena packed, boolean clip) {
+        List<Region> regions = ectr.getFrame().getRelForbidRegions(i);
+        GeostObject fixed = stp.getObject(i);
+        if (!regions.isEmpty() && fixed != null && fixed.getShapeId().isInstantiated()) {
+            // the outboxes only depend on the regions, so they are taken from the cache whenever the regions are a
+            // translation of those of the shape of object i
+            MinkowskiCache.Entry e = getMinkowski(fixed.getShapeId().getValue(), sid, sb);
+            int[] x = translation(e, regions);
+            if (x != null) {
+                genTranslatedOutboxes(e, x, domain, sb, ictrs, packed, clip);
+                return;
+            }
+        }
+        int dim = cst.getDIM();
+        int[] boxes = stp.getShapeBoxes(sid);
+        for (int p = 0; p < boxes.length; p += 2 * dim) {
+            // We will generate an outbox constraint corresponding to each relative forbidden region we already generated
+            // for the shifted boxes of the shape corresponding to the Obj o
+
+            // here we go into the relative forbidden regions
+            loop:
+            for (int l = 0; l < regions.size(); l++) {
+                int[] t = new int[dim];
+                int[] s = new int[dim];
+                for (int j = 0; j < dim; j++) {
+                    int min = regions.get(l).getMinimumBoundary(j) - boxes[p + j] - boxes[p + dim + j];
+                    int max = regions.get(l).getMaximumBoundary(j) - boxes[p + j];
+
+                    s[j] = max - min + 1; // length of the jth coordinate
+                    if (s[j] <= 0) // since the length is negative
+                        continue loop;
+                    t[j] = min; // It is the offset. lower left corner.
+                    if (!meetsDomain(domain, j, t, s, clip)) {
+                        continue loop;
+                    }
+                }
+                addOutbox(new Outbox(t, s), ictrs, packed);
+            }
+        }
+    }
+
+    /**
+     * Appends the outboxes of o, placed with shape sid, with respect to an object of shape fixedSid fixed at x, as if
+     * this object was in the frame with its regions at x. Nothing else is read from the frame, see
+     * {@link GreedyWorker}.
+     */
+    void genOutboxes(GeostObject o, int sid, int fixedSid, int[] x, List<InternalConstraint> ictrs, OutboxArena packed) {
+        List<ShiftedBox> sb = stp.getShape(sid);
+        genTranslatedOutboxes(getMinkowski(fixedSid, sid, sb), x, domainOf(o), sb, ictrs, packed, stp.opt.clipping);
+    }
+
+    /**
+     * Same as the loop of genOutboxes from the outboxes of e translated by x.
+     */
+    private void genTranslatedOutboxes(MinkowskiCache.Entry e, int[] x, int[] domain, List<ShiftedBox> sb, List<InternalConstraint> ictrs, OutboxArena packed, boolean clip) {
+        int k = cst.getDIM();
+        for (int b = 0; b < sb.size(); b++) {
+            int[] boxes = e.outboxes[b];
+            loop:
+            for (int p = 0; p < boxes.length; p += 2 * k) {
+                int[] t = new int[k];
+                int[] s = new int[k];
+                for (int j = 0; j < k; j++) {
+                    t[j] = x[j] + boxes[p + j];
+                    s[j] = boxes[p + k + j];
+                    if (!meetsDomain(domain, j, t, s, clip)) {
+                        continue loop;
+                    }
+                }
+                addOutbox(new Outbox(t, s), ictrs, packed);
+            }
+        }
+    }
+
+    /**
+     * The bounds of the coordinates of o, as {lb_0, .., lb_k-1, ub_0, .., ub_k-1}. They are read once for all the
+     * outboxes generated for o rather than from the variables for each outbox.
+     */
+    private int[] domainOf(GeostObject o) {
+        int k = cst.getDIM();
+        int[] domain = new int[2 * k];
+        for (int j = 0; j < k; j++) {
+            domain[j] = o.getCoord(j).getLB();
+            domain[k + j] = o.getCoord(j).getUB();
+        }
+        return domain;
+    }
+
+    /**
+     * Checks, in dimension j, that the outbox (t,s) of o meets the domain of o, given by {@link #domainOf}, and
+     * restricts the outbox to the domain when clip is set. The values of the outbox outside the domain are never
+     * reached by the sweep, the only change is that boxes clipped to the same bounds are more likely to be merged
+     * afterwards.
+     */
+    private boolean meetsDomain(int[] domain, int j, int[] t, int[] s, boolean clip) {
+        int min = Math.max(t[j], domain[j]);
+        int max = Math.min(t[j] + s[j] - 1, domain[t.length + j]);
+        if (min > max) {
+            // this means the intersection of dom(o.x) and the forbidden region associated with Outbox(t,s) is empty. In
+            // the other words all the placement space is feasible for o.x according to the constraint Outbox(t,s)
+            return false;
+        }
+        if (clip) {
+            t[j] = min;
+            s[j] = max - min + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Appends new_ob to ictrs and packed, merged with the last outbox when they are adjacent.
+     */
+    private void addOutbox(Outbox new_ob, List<InternalConstraint> ictrs, OutboxArena packed) {
+        Pair<Outbox, Boolean> result;
+        if (ictrs.size() != 0) {
+            Outbox last_ob = (Outbox) ictrs.get(ictrs.size() - 1);
+            result = mergeAdjacent(new_ob, last_ob);
+
+            new_ob = result.fst;
+
+            if (result.snd) {
+                ictrs.remove(ictrs.size() - 1);
+                if (packed != null) packed.removeLast();
+            }
+
+        }
+
+        ictrs.add(new_ob);
+        if (packed != null) packed.add(new_ob);
+    }
+
+    /**
+     * Returns the outboxes that the shape sid, made of the shifted boxes sb, gets from an object of shape fixedSid.
+     */
+    private MinkowskiCache.Entry getMinkowski(int fixedSid, int sid, List<ShiftedBox> sb) {
+        MinkowskiCache.Entry e = minkowski.get(fixedSid, sid);
+        if (e != null) {
+            return e;
+        }
+        int k = cst.getDIM();
+        // the regions of an object fixed at the origin, as built by initFrameExternalConstraintForNonOverlapping
+        List<int[]> common = intersectShapes(new int[]{fixedSid}, new int[k]);
+        int[] regions = new int[common.size() * 2 * k];
+        for (int l = 0; l < common.size(); l++) {
+            for (int j = 0; j < k; j++) {
+                regions[l * 2 * k + j] = common.get(l)[j] + 1;
+                regions[l * 2 * k + k + j] = common.get(l)[k + j] - 1;
+            }
+        }
+        int[][] outboxes = new int[sb.size()][];
+        for (int b = 0; b < sb.size(); b++) {
+            List<int[]> boxes = new ArrayList<>(common.size());
+            loop:
+            for (int l = 0; l < common.size(); l++) {
+                // kept as {min_0, .., min_k-1, max_0, .., max_k-1} to reuse removeIncluded
+                int[] ob = new int[2 * k];
+                for (int j = 0; j < k; j++) {
+                    ob[j] = regions[l * 2 * k + j] - sb.get(b).getOffset(j) - sb.get(b).getSize(j);
+                    ob[k + j] = regions[l * 2 * k + k + j] - sb.get(b).getOffset(j);
+                    if (ob[k + j] < ob[j]) {
+                        continue loop;
+                    }
+                }
+                boxes.add(ob);
+            }
+            // an outbox included in another one of the same shifted box adds nothing, even once checked against the
+            // domain in meetsDomain
+            boxes = removeIncluded(boxes);
+            outboxes[b] = new int[boxes.size() * 2 * k];
+            for (int p = 0; p < boxes.size(); p++) {
+                for (int j = 0; j < k; j++) {
+                    outboxes[b][p * 2 * k + j] = boxes.get(p)[j];
+                    outboxes[b][p * 2 * k + k + j] = boxes.get(p)[k + j] - boxes.get(p)[j] + 1;
+                }
+            }
+        }
+        e = new MinkowskiCache.Entry(regions, outboxes);
+        minkowski.put(fixedSid, sid, e);
+        return e;
+    }
+
+    /**
+     * Returns the vector x such that the regions are those of e translated by x, or null if there is none.
+     */
+    private int[] translation(MinkowskiCache.Entry e, List<Region> regions) {
+        int k = cst.getDIM();
+        if (regions.size() * 2 * k != e.regions.length) {
+            return null;
+        }
+        int[] x = new int[k];
+        for (int j = 0; j < k; j++) {
+            x[j] = regions.get(0).getMinimumBoundary(j) - e.regions[j];
+        }
+        for (int l = 0; l < regions.size(); l++) {
+            Region r = regions.get(l);
+            for (int j = 0; j < k; j++) {
+                if (r.getMinimumBoundary(j) != e.regions[l * 2 * k + j] + x[j]
+                        || r.getMaximumBoundary(j) != e.regions[l * 2 * k + k + j] + x[j]) {
+                    return null;
+                }
+            }
+        }
+        return x;
+    }
+
     private boolean useful_absolute_fr(int min, int max, int[]s, int[]t, int j, int lb, int ub) {
         if(min < lb){
             min = lb;
@@ -0,0 +1,85 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+
+/**
+ * The outboxes that the sweeps of {@link GeometricKernel#filterObj} found for each object of a filterCtrs pass, kept
+ * along the current branch.
+ * <p>
+ * Going down a branch, the domains of the other objects shrink and their compulsory parts grow, so an outbox which
+ * was forbidden for an object with a fixed shape stays forbidden below. The boxes found by one sweep are therefore
+ * looked up first by the next sweeps of the same object, in any dimension and in the next passes. The number of boxes
+ * of each object is trailed, the boxes found below a node are forgotten when the solver backtracks to it.
+ */
+final class ForbiddenBoxCache {
+
+    /**
+     * Maximum number of boxes kept for an object, the boxes found once it is reached are not kept.
+     */
+    static final int CAPACITY = 32;
+
+    private final Outbox[][] boxes;
+    private final IStateInt[] size;
+
+    /**
+     * @param env the environment of the solver, the cache has to be created at the root of the search
+     * @param n   the number of slots
+     */
+    ForbiddenBoxCache(IEnvironment env, int n) {
+        boxes = new Outbox[n][];
+        size = new IStateInt[n];
+        for (int s = 0; s < n; s++) {
+            size[s] = env.makeInt(0);
+        }
+    }
+
+    /**
+     * Returns a box of slot s containing c, or null if there is none.
+     */
+    Outbox find(int s, Point c) {
+        Outbox[] bs = boxes[s];
+        for (int b = size[s].get() - 1; b >= 0; b--) {
+            if (contains(bs[b], c)) {
+                return bs[b];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps a copy of ob for the object in slot s, unless the cache of s is full.
+     */
+    void add(int s, Outbox ob) {
+        int n = size[s].get();
+        if (n == CAPACITY) {
+            return;
+        }
+        if (boxes[s] == null) {
+            boxes[s] = new Outbox[CAPACITY];
+        }
+        // a copy, the outboxes generated for an object can be merged with others afterwards
+        boxes[s][n] = new Outbox(ob.getT().clone(), ob.getL().clone());
+        size[s].set(n + 1);
+    }
+
+    private static boolean contains(Outbox ob, Point c) {
+        for (int j = 0; j < c.getCoords().length; j++) {
+            int x = c.getCoord(j);
+            if (x < ob.getT(j) || x > ob.getT(j) + ob.getL(j) - 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
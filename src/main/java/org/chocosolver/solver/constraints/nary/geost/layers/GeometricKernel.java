@@ -28,6 +28,14 @@ import org.chocosolver.solver.propagation.PropagationEngine;
 import org.chocosolver.solver.variables.IntVar;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
 
 import static java.text.MessageFormat.format;
 
@@ -57,6 +65,58 @@ public final class GeometricKernel {
     private final Map<Pair<Integer, Integer>, Boolean> included;
     private int get_fr_ptr_a = 0;
     private int get_fr_ptr_b = 0;
+    // the internal constraints swept by filterObj, fixObj or fixAllObjs_incr, cleared once they are done with them
+    private final OutboxIndex frIndex = new OutboxIndex();
+    private final OutboxCoalescer coalescer = new OutboxCoalescer();
+    // sweep point, jump vector and forbidden region reused by pruneMin, pruneMax and pruneFix
+    private Point sweepPoint;
+    private Point sweepJump;
+    private Region sweepRegion;
+    // bounds of the object swept and sweep specialised for the dimension of the kernel, null for the generic loops
+    private int[] sweepLb;
+    private int[] sweepUb;
+    private UnrolledSweep unrolled;
+    private final UnrolledSweep.BoxFinder boxFinder = this::findBox;
+    // forbidden origins of the object filtered in box mode and of the object placed in greedy mode, null when the
+    // domains are too large, see initSmallDomains
+    private OriginGrid originGrid;
+    private SummedAreaTable originTable;
+    // bounds of the object filtered by filterObj in box mode, narrowed by its sweeps and only written to the variables
+    // at the end of its pass, see sweepInPass; passObject is null out of a pass
+    private GeostObject passObject;
+    private int[] passLb;
+    private int[] passUb;
+    // objects waiting to be filtered by filterCtrs, see initWorklist
+    private ObjectWorklist worklist;
+    private Map<Integer, Integer> slotOf;
+    private int[] slotOid;
+    private int[][] dependents;
+    private boolean skipped;
+    // outboxes found by the sweeps of each slot along the current branch, see ForbiddenBoxCache
+    private ForbiddenBoxCache boxCache;
+    // for each slot, the feasible points where its last sweeps stopped, one per bound: min of dimension d at d and max
+    // of dimension d at k+d
+    private int[][][] witnesses;
+    // the slot being swept by filterObj, -1 if the object swept is not in a slot
+    private int sweptSlot = -1;
+    // true when one of the external constraints is a distance constraint
+    private boolean hasDistance;
+    // the pools running the parallel filtering and the parallel greedy mode, one per level of parallelism, shared by
+    // all the kernels; their threads are daemons which terminate when they stay idle, so the pools are never shut down
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+    // state of the parallel filtering, see filterBatch
+    private SweepWorker[] workers;
+    // one per attempt of fixAllObjsInParallel
+    private GreedyWorker[] greedyWorkers;
+    private int[] batch;
+    private int[] others;
+    private boolean[] batchFeasible;
+    private int[] batchLb = new int[0];
+    private int[] batchUb = new int[0];
+    // incremented each time the frames are built from scratch
+    private int frameGeneration;
+    // the generation of the frames filterCtrs relies on along the current branch
+    private final IStateInt framesGeneration;
     private IntVar[] E = null;
     private IntVar[] D = null;
     private GeostNumeric engine = null;
@@ -88,6 +148,7 @@ public final class GeometricKernel {
         this.solver = aSolver;
         this.constraint = aConstraint;
         this.mengine = (MutePropagationEngine) solver.getEngine();
+        this.framesGeneration = solver.getEnvironment().makeInt(-1);
     }
 
     /**
@@ -104,55 +165,319 @@ public final class GeometricKernel {
      *         second is a Region object indicating the forbidden region if it exists.
      */
     List getFR(int d, int k, GeostObject o, Point c, Point jump, List<InternalConstraint> ACTRS, boolean increase) {
+        List<Object> result = new ArrayList<>(2);
+        Region f = new Region(cst.getDIM(), -1);
+        result.add(0, getFR(d, k, o, c, jump, ACTRS, increase, f));
+        result.add(1, f);
+        return result;
+    }
+
+    /**
+     * Same as {@link #getFR(int, int, GeostObject, Point, Point, List, boolean)} but the forbidden region is written
+     * into f, so that the sweep loops can reuse a single region.
+     *
+     * @param f The region receiving the forbidden region, if any
+     * @return true if there is a forbidden region containing c
+     */
+    boolean getFR(int d, int k, GeostObject o, Point c, Point jump, List<InternalConstraint> ACTRS, boolean increase, Region f) {
         stp.opt.GetFRCalled++;
 
-        List<Object> result = new ArrayList<>(2);
-        List v;
-        if (increase) {
-            for (int rr = get_fr_ptr_a; rr < ACTRS.size() + get_fr_ptr_a; rr++) {
-                int i = rr % ACTRS.size();
-                long tmpTime = System.nanoTime() / ONE_MILLION;
-                //System.out.println(ACTRS.get(i)   );
-                v = intermediateLayer.isFeasible(ACTRS.get(i), true, d, k, o, c, jump);
-                stp.opt.timeIsFeasible += (System.nanoTime() / ONE_MILLION) - tmpTime;
-
-                if (!((Boolean) v.get(0))) {
+        if (sweptSlot >= 0 && boxCache != null) {
+            Outbox ob = boxCache.find(sweptSlot, c);
+            if (ob != null) {
+                stp.opt.boxCacheHits++;
+                return !intermediateLayer.isFeasible(ob, increase, d, k, o, c, jump, f);
+            }
+        }
+
+        if (frIndex.isBuiltFor(ACTRS)) {
+            return getFRFromIndex(d, k, o, c, jump, increase, f);
+        }
+
+        int ptr = increase ? get_fr_ptr_a : get_fr_ptr_b;
+        for (int rr = ptr; rr < ACTRS.size() + ptr; rr++) {
+            int i = rr % ACTRS.size();
+            long tmpTime = System.nanoTime() / ONE_MILLION;
+            boolean feasible = intermediateLayer.isFeasible(ACTRS.get(i), increase, d, k, o, c, jump, f);
+            stp.opt.timeIsFeasible += (System.nanoTime() / ONE_MILLION) - tmpTime;
+
+            if (!feasible) {
+                if (increase) {
                     get_fr_ptr_a = i;
-                    result.clear();
-                    result.add(0, true);
-                    result.add(1, v.get(1));
-                    return result;
+                } else {
+                    get_fr_ptr_b = i;
+                }
+                if (sweptSlot >= 0 && boxCache != null && ACTRS.get(i) instanceof Outbox) {
+                    boxCache.add(sweptSlot, (Outbox) ACTRS.get(i));
                 }
+                return true;
             }
+        }
+        if (increase) {
             get_fr_ptr_a = 0;
-            result.clear();
-            result.add(0, false);
-            result.add(1, new Region(cst.getDIM(), -1));
-            return result;
         } else {
-            for (int rr = get_fr_ptr_b; rr < ACTRS.size() + get_fr_ptr_b; rr++) {
-                int i = rr % ACTRS.size();
-                long tmpTime = System.nanoTime() / ONE_MILLION;
+            get_fr_ptr_b = 0;
+        }
+        return false;
+    }
 
-                v = intermediateLayer.isFeasible(ACTRS.get(i), false, d, k, o, c, jump);
-                stp.opt.timeIsFeasible += (System.nanoTime() / ONE_MILLION) - tmpTime;
+    /**
+     * Same as getFR but the outboxes are looked up in frIndex, which must have been built from the internal
+     * constraints of o. The remaining internal constraints, that are not boxes, are scanned in order.
+     */
+    private boolean getFRFromIndex(int d, int k, GeostObject o, Point c, Point jump, boolean increase, Region f) {
+        long tmpTime = System.nanoTime() / ONE_MILLION;
+        boolean found = false;
+        Outbox ob = frIndex.find(c);
+        if (ob != null) {
+            found = !intermediateLayer.isFeasible(ob, increase, d, k, o, c, jump, f);
+            if (sweptSlot >= 0 && boxCache != null) {
+                boxCache.add(sweptSlot, ob);
+            }
+        } else {
+            List<InternalConstraint> others = frIndex.getOthers();
+            for (int i = 0; i < others.size() && !found; i++) {
+                found = !intermediateLayer.isFeasible(others.get(i), increase, d, k, o, c, jump, f);
+            }
+        }
+        stp.opt.timeIsFeasible += (System.nanoTime() / ONE_MILLION) - tmpTime;
+        return found;
+    }
 
-                if (!((Boolean) v.get(0))) {
-                    get_fr_ptr_b = i;
-                    result.clear();
-                    result.add(0, true);
-                    result.add(1, v.get(1));
-                    return result;
+    private void ensureSweepBuffers(int k) {
+        if (sweepPoint == null || sweepPoint.getCoords().length != k) {
+            sweepPoint = new Point(k);
+            sweepJump = new Point(k);
+            sweepRegion = new Region(k, -1);
+            sweepLb = new int[k];
+            sweepUb = new int[k];
+            passLb = new int[k];
+            passUb = new int[k];
+            // chosen here rather than from the constants, whose dimension may be set after the kernel is created
+            unrolled = stp.opt.unrolled ? UnrolledSweep.of(k) : null;
+        }
+    }
+
+    /**
+     * Chooses how the origins of an object are searched, from the sizes of the domains once the problem is set up.
+     * When the bounds of each object hold at most {@link GeostOptions#gridCells} points, filterObj draws the forbidden
+     * origins of an object in box mode in an {@link OriginGrid} and finds all its bounds in one scan of the grid, and
+     * pruneFix finds the point of an object in greedy mode with a {@link SummedAreaTable} of its forbidden origins, in
+     * 2 and 3 dimensions. The domains only shrink, so both stay small along the search. Otherwise the bounds are swept.
+     * <p>
+     * Also creates the {@link ForbiddenBoxCache} when it is enabled: its sizes are trailed, so it has to be created at
+     * the root rather than by the first filterCtrs, which may run below it, from isEntailed for instance.
+     *
+     * @param k The total number of dimensions (The dimension of the space we are working in)
+     */
+    public void initSmallDomains(int k) {
+        // one slot per object, as initWorklist gives them
+        boxCache = stp.opt.boxCache ? new ForbiddenBoxCache(solver.getEnvironment(), stp.getNbOfObjects()) : null;
+        originGrid = null;
+        originTable = null;
+        if (stp.opt.gridCells <= 0) {
+            return;
+        }
+        for (Integer oid : stp.getObjectKeySet()) {
+            GeostObject o = stp.getObject(oid);
+            long cells = 1;
+            for (int j = 0; j < k; j++) {
+                cells *= o.getCoord(j).getUB() - (long) o.getCoord(j).getLB() + 1;
+                if (cells > stp.opt.gridCells) {
+                    return;
                 }
             }
-            get_fr_ptr_b = 0;
-            result.clear();
-            result.add(0, false);
-            result.add(1, new Region(cst.getDIM(), -1));
-            return result;
+        }
+        if (stp.opt.boxModeOnly && !stp.opt.useNumericEngine) {
+            originGrid = new OriginGrid(k);
+        }
+        if (k == 2 || k == 3) {
+            originTable = new SummedAreaTable(k);
         }
     }
 
+    /**
+     * Tells whether the bounds of o can be narrowed by {@link #projectOriginGrid} rather than swept: the grid is
+     * chosen, the internal constraints of o are all outboxes indexed by frIndex and nothing is serialized.
+     */
+    private boolean canProjectOriginGrid(GeostObject o) {
+        List<InternalConstraint> ictrs = o.getRelatedInternalConstraints();
+        return originGrid != null && stp.opt.serial == null
+                && frIndex.isBuiltFor(ictrs) && frIndex.getOthers().isEmpty();
+    }
+
+    /**
+     * Narrows the bounds of o with {@link #originGrid}, in place of pruneMin and pruneMax in every dimension. When a
+     * new bound falls in a hole of its domain, the variable moves it further and the free points found beyond it in
+     * the other dimensions may be gone: the bounds are then projected again, until no bound is moved by a hole.
+     *
+     * @return false if no point of the bounds of o is feasible
+     */
+    private boolean projectOriginGrid(GeostObject o, int k) throws ContradictionException {
+        ensureSweepBuffers(k);
+        for (int j = 0; j < k; j++) {
+            sweepLb[j] = o.getCoord(j).getLB();
+            sweepUb[j] = o.getCoord(j).getUB();
+        }
+        boolean moved = true;
+        while (moved) {
+            if (!originGrid.project(o.getRelatedInternalConstraints(), sweepLb, sweepUb)) {
+                return false;
+            }
+            moved = false;
+            for (int j = 0; j < k; j++) {
+                IntVar x = o.getCoord(j);
+                x.updateBounds(sweepLb[j], sweepUb[j], this.constraint);
+                moved |= x.getLB() != sweepLb[j] || x.getUB() != sweepUb[j];
+                sweepLb[j] = x.getLB();
+                sweepUb[j] = x.getUB();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether the point of o can be found by {@link #originTable} rather than swept: the table is chosen, the
+     * internal constraints of o are all outboxes indexed by frIndex, there are enough of them for the table to be
+     * worth building and nothing is serialized. The table is built again if frIndex or the bounds of o changed since
+     * it was last built.
+     */
+    private boolean canPlaceWithOriginTable(GeostObject o, int k, List<InternalConstraint> ictrs) {
+        if (originTable == null || stp.opt.serial != null
+                || !frIndex.isBuiltFor(ictrs) || !frIndex.getOthers().isEmpty()) {
+            return false;
+        }
+        for (int j = 0; j < k; j++) {
+            sweepLb[j] = o.getCoord(j).getLB();
+            sweepUb[j] = o.getCoord(j).getUB();
+        }
+        if (!SummedAreaTable.isWorthBuilding(ictrs.size(), sweepLb, sweepUb)) {
+            return false;
+        }
+        if (!originTable.isBuiltFor(frIndex.getBuilds(), sweepLb, sweepUb)) {
+            originTable.build(ictrs, frIndex.getBuilds(), sweepLb, sweepUb);
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether the sweep of o over ictrs can be done by {@link #unrolled}: there is one for k, the outboxes of
+     * ictrs are all in frIndex and there is no other internal constraint, and nothing is serialized.
+     */
+    private boolean canSweepUnrolled(GeostObject o, int k, List<InternalConstraint> ictrs) {
+        if (unrolled == null || stp.opt.serial != null
+                || !frIndex.isBuiltFor(ictrs) || !frIndex.getOthers().isEmpty()) {
+            return false;
+        }
+        loadBounds(o, k);
+        return true;
+    }
+
+    /**
+     * Loads the bounds of o in sweepLb and sweepUb, from the bounds of the pass when o is the object filtered.
+     */
+    private void loadBounds(GeostObject o, int k) {
+        if (o == passObject) {
+            System.arraycopy(passLb, 0, sweepLb, 0, k);
+            System.arraycopy(passUb, 0, sweepUb, 0, k);
+        } else {
+            for (int j = 0; j < k; j++) {
+                sweepLb[j] = o.getCoord(j).getLB();
+                sweepUb[j] = o.getCoord(j).getUB();
+            }
+        }
+    }
+
+    private int lbOf(GeostObject o, int j) {
+        return o == passObject ? passLb[j] : o.getCoord(j).getLB();
+    }
+
+    private int ubOf(GeostObject o, int j) {
+        return o == passObject ? passUb[j] : o.getCoord(j).getUB();
+    }
+
+    /**
+     * Same as updateLowerBound on the coordinate d of o, except that when o is the object of the pass only the
+     * bounds of the pass are raised, to the smallest value of the domain from v. The variable is then only updated
+     * here when there is no such value, to raise the contradiction.
+     */
+    private void updateLowerBound(GeostObject o, int d, int v) throws ContradictionException {
+        if (o != passObject) {
+            o.getCoord(d).updateLowerBound(v, this.constraint);
+        } else if (v > passLb[d]) {
+            int lb = o.getCoord(d).nextValue(v - 1);
+            if (lb > passUb[d]) {
+                o.getCoord(d).updateBounds(v, passUb[d], this.constraint);
+            }
+            passLb[d] = lb;
+        }
+    }
+
+    /**
+     * Same as {@link #updateLowerBound(GeostObject, int, int)} for the upper bound.
+     */
+    private void updateUpperBound(GeostObject o, int d, int v) throws ContradictionException {
+        if (o != passObject) {
+            o.getCoord(d).updateUpperBound(v, this.constraint);
+        } else if (v < passUb[d]) {
+            int ub = o.getCoord(d).previousValue(v + 1);
+            if (ub < passLb[d]) {
+                o.getCoord(d).updateBounds(passLb[d], v, this.constraint);
+            }
+            passUb[d] = ub;
+        }
+    }
+
+    /**
+     * The sweeps of filterObj in box mode, on a copy of the bounds of o taken at the beginning of the pass. The sweeps
+     * of the k dimensions read and narrow the copy rather than the variables, and the variables are updated once per
+     * dimension at the end. The outboxes of o do not depend on its own bounds, so the bounds found are the same as when
+     * each sweep updates the variables.
+     *
+     * @return false if a sweep finds no feasible point
+     */
+    private boolean sweepInPass(GeostObject o, int k, List<InternalConstraint> ictrs) throws ContradictionException {
+        ensureSweepBuffers(k);
+        for (int j = 0; j < k; j++) {
+            passLb[j] = o.getCoord(j).getLB();
+            passUb[j] = o.getCoord(j).getUB();
+        }
+        passObject = o;
+        try {
+            for (int d = 0; d < k; d++) {
+                if (!pruneMin(o, d, k, ictrs) || !pruneMax(o, d, k, ictrs)) {
+                    return false;
+                }
+            }
+        } finally {
+            passObject = null;
+        }
+        for (int j = 0; j < k; j++) {
+            o.getCoord(j).updateBounds(passLb[j], passUb[j], this.constraint);
+        }
+        return true;
+    }
+
+    /**
+     * Same as getFR when all the internal constraints are outboxes indexed by frIndex: returns the outbox containing c,
+     * or null.
+     */
+    private Outbox findBox(Point c) {
+        stp.opt.GetFRCalled++;
+        if (sweptSlot >= 0 && boxCache != null) {
+            Outbox ob = boxCache.find(sweptSlot, c);
+            if (ob != null) {
+                stp.opt.boxCacheHits++;
+                return ob;
+            }
+        }
+        Outbox ob = frIndex.find(c);
+        if (ob != null && sweptSlot >= 0 && boxCache != null) {
+            boxCache.add(sweptSlot, ob);
+        }
+        return ob;
+    }
+
     /**
      * This is the main filtering algorithm associated with the Geost_Constraint.
      *
@@ -162,8 +487,24 @@ public final class GeometricKernel {
      * @return It return false if we couldn't prune anything, this means that we sweeped the whole space and couldn't find a placement. This cause
      *         a failure of the Geost_Constraint. Otherwise it returns true.
      */
-    @SuppressWarnings({"PrimitiveArrayArgumentToVariableArgMethod"})
     public boolean filterCtrs(int k, int[] oIDs, List<ExternalConstraint> ectrs) throws ContradictionException {
+        return filterCtrs(k, oIDs, ectrs, null, 0);
+    }
+
+    /**
+     * Same as {@link #filterCtrs(int, int[], List)} when the objects are already at fixpoint but for a few of them. Only
+     * the objects depending on the modified ones are filtered at first, the others are filtered when the propagation
+     * reaches them.
+     *
+     * @param k          The total number of dimensions (The dimension of the space we are working in)
+     * @param oIDs       The list of object IDs
+     * @param ectrs      The list of external constraints
+     * @param modified   The ids of the objects modified since the last fixpoint, or null to filter all the objects
+     * @param nbModified The number of ids to read in modified
+     * @return false if an object cannot be placed
+     */
+    @SuppressWarnings({"PrimitiveArrayArgumentToVariableArgMethod"})
+    public boolean filterCtrs(int k, int[] oIDs, List<ExternalConstraint> ectrs, int[] modified, int nbModified) throws ContradictionException {
 
 
         stp.opt.propag_failed = true;
@@ -183,123 +524,356 @@ public final class GeometricKernel {
         if (stp.opt.debug) {
             System.out.println("FilterCtrs:");
         }
-        boolean nonFix = true;
-        //?????
-        //Ensure that all internal constraint containing a variable
-        //update those variables based on the new domain of the objects.
-        for (ExternalConstraint ectr : ectrs) {
-            if (ectr instanceof DistLeq) {
-                DistLeq dl = (DistLeq) ectr;
-                ForbiddenRegionFrame f = (ForbiddenRegionFrame) externalLayer.InitFrameExternalConstraint(ectr, oIDs);
-                DistLeqIC ic = new DistLeqIC(stp, f.q, f.D, f.s1, f.s2, f.o1, f.o2, dl.getDistanceVar());
-                nonFix &= ic.updateDistance(k);
+        // AC-3 like propagation: an object is filtered again only when an object it depends on has been pruned
+        initWorklist(oIDs, ectrs);
+        worklist.clear();
+        if (modified == null) {
+            for (int i = 0; i < oIDs.length; i++) {
+                worklist.push(slotOf.get(oIDs[i]));
             }
-
-            if (ectr instanceof DistGeq) {
-                DistGeq dg = (DistGeq) ectr;
-                ForbiddenRegionFrame f = (ForbiddenRegionFrame) externalLayer.InitFrameExternalConstraint(ectr, oIDs);
-                DistGeqIC ic = new DistGeqIC(stp, f.q, f.D, f.s1, f.s2, f.o1, f.o2, dg.getDistanceVar());
-                nonFix &= ic.updateDistance(k);
+        } else {
+            for (int i = 0; i < nbModified; i++) {
+                for (int d : dependents[slotOf.get(modified[i])]) {
+                    worklist.push(d);
+                }
             }
+        }
 
-
+        // as in the former fixpoint loop, nothing is filtered when a distance constraint leaves its variable unchanged
+        skipped = !updateDistances(k, oIDs, ectrs);
+        if (skipped) {
+            worklist.clear();
         }
 
-        while (nonFix) {
+        // the frames of the previous call are still valid on this branch, only the modified objects are refreshed
+        if (modified == null || framesGeneration.get() != frameGeneration) {
+            initFrames(oIDs, ectrs);
+            framesGeneration.set(frameGeneration);
+        } else {
+            for (int i = 0; i < nbModified; i++) {
+                refreshFrames(stp.getObject(modified[i]), ectrs);
+            }
+        }
 
-            nonFix = false;  //Suppose there will be no updates
+        boolean parallel = canFilterInParallel();
+        while (!worklist.isEmpty()) {
+            while (!worklist.isEmpty()) {
+                if (parallel) {
+                    if (!filterBatch(k, ectrs)) {
+                        return false;
+                    }
+                } else if (!filterSlot(k, worklist.pop(), ectrs)) {
+                    return false;
+                }
+            }
 
-            //?????
             //Ensure that all internal constraint containing a variable
             //update those variables based on the new domain of the objects.
-            for (ExternalConstraint ectr : ectrs) {
-                if (ectr instanceof DistLeq) {
-                    DistLeq dl = (DistLeq) ectr;
-                    ForbiddenRegionFrame f = (ForbiddenRegionFrame) externalLayer.InitFrameExternalConstraint(ectr, oIDs);
-                    DistLeqIC ic = new DistLeqIC(stp, f.q, f.D, f.s1, f.s2, f.o1, f.o2, dl.getDistanceVar());
-                    nonFix = nonFix || ic.updateDistance(k);
-                }
+            updateDistances(k, oIDs, ectrs);
+        }
 
-                if (ectr instanceof DistGeq) {
-                    DistGeq dg = (DistGeq) ectr;
-                    ForbiddenRegionFrame f = (ForbiddenRegionFrame) externalLayer.InitFrameExternalConstraint(ectr, oIDs);
-                    DistGeqIC ic = new DistGeqIC(stp, f.q, f.D, f.s1, f.s2, f.o1, f.o2, dg.getDistanceVar());
-                    nonFix = nonFix || ic.updateDistance(k);
-                }
+        stp.opt.propag_failed = false;
 
+        if (stp.opt.try_propagation) {
+            stp.g_constraint.fails();
+        }
 
+        return true;
+    }
+
+    /**
+     * Filters the object in a given slot and queues the objects depending on it if it has been pruned.
+     *
+     * @return false if the object cannot be placed
+     */
+    private boolean filterSlot(int k, int slot, List<ExternalConstraint> ectrs) throws ContradictionException {
+        stp.opt.filteredObjects++;
+        int oid = slotOid[slot];
+        GeostObject o = stp.getObject(oid);
+        if (stp.opt.debug) {
+            System.out.println(String.format("Considering object %d %s --> ", oid, o));
+        }
+        int domainsSize = o.calculateDomainSize();
+        if (!filterObjWP(k, oid)) {
+            if (stp.opt.debug) {
+                System.out.println("Returning false;");
+            }
+            return false;
+        } else {
+            // need to check if Object attributes has been pruned
+            if (domainsSize != o.calculateDomainSize()) {
+                //update the relative forbidden regions attached to object o
+                refreshFrames(o, ectrs);
+                //the objects whose internal constraints depend on o have to be filtered again
+                for (int d : dependents[slot]) {
+                    worklist.push(d);
+                }
             }
+            if (stp.opt.debug) {
+                System.out.println(String.format("***Result of FilterCstrs:%s", o));
+            }
+        }
+        return true;
+    }
 
-            //nonFix=nonFix || propagDistConstraints();
+    /**
+     * Tells whether the objects of a filterCtrs pass can be swept by several threads: the option has to be set and
+     * all the internal constraints have to be outboxes filtered in box mode, without any trace or serialization.
+     */
+    private boolean canFilterInParallel() {
+        return stp.opt.parallelism > 1 && !hasDistance
+                && stp.opt.boxModeOnly && !stp.opt.useNumericEngine
+                && !stp.opt.debug && !stp.opt.processing && stp.opt.serial == null;
+    }
 
-            for (int i = 0; i < ectrs.size(); i++) {
-                ectrs.get(i).setFrame(externalLayer.InitFrameExternalConstraint(ectrs.get(i), oIDs));
+    /**
+     * Empties the worklist and filters all the objects it contained. The objects with a fixed shape are swept
+     * concurrently, each from the frames as they are at the beginning of the batch; their new bounds are then applied
+     * here, on the solver thread, in the order of the worklist. Polymorphic objects are filtered one by one afterwards.
+     *
+     * @return false if an object cannot be placed
+     */
+    private boolean filterBatch(int k, List<ExternalConstraint> ectrs) throws ContradictionException {
+        int nb = 0;
+        int nbOthers = 0;
+        while (!worklist.isEmpty()) {
+            int slot = worklist.pop();
+            if (stp.getObject(slotOid[slot]).getShapeId().isInstantiated()) {
+                batch[nb++] = slot;
+            } else {
+                others[nbOthers++] = slot;
             }
-            for (int i = 0; i < oIDs.length; i++) {
-                GeostObject o = stp.getObject(oIDs[i]);
-                if (stp.opt.debug) {
-                    System.out.println(String.format("Considering object %d %s --> ", oIDs[i], o));
+        }
+        if (nb < 2) {
+            // not worth a fork
+            for (int b = 0; b < nb; b++) {
+                if (!filterSlot(k, batch[b], ectrs)) {
+                    return false;
                 }
-                int domainsSize = o.calculateDomainSize();
-                if (!filterObjWP(k, oIDs[i])) {
-                    if (stp.opt.debug) {
-                        System.out.println("Returning false;");
-                    }
+            }
+        } else {
+            stp.opt.filteredObjects += nb;
+            sweepInParallel(k, nb);
+            for (int b = 0; b < nb; b++) {
+                if (!batchFeasible[b]) {
                     return false;
-                } else {
-                    // need to check if Object attributes has been pruned
-                    if (domainsSize != o.calculateDomainSize()) {
-                        //update the relative forbidden regions attached to object o
-                        for (int j = 0; j < o.getRelatedExternalConstraints().size(); j++) {
-                            if (!((o.getRelatedExternalConstraints().get(j) instanceof DistLeq)
-                                    || (o.getRelatedExternalConstraints().get(j) instanceof DistGeq)
-                                    || (o.getRelatedExternalConstraints().get(j) instanceof DistLinear))) {
-                                o.getRelatedExternalConstraints().get(j).getFrame().getRelForbidRegions().remove(o.getObjectId());
-                                int[] oIDi = {oIDs[i]};
-                                o.getRelatedExternalConstraints().get(j).getFrame().getRelForbidRegions().put(o.getObjectId(), externalLayer.InitFrameExternalConstraint(
-                                        o.getRelatedExternalConstraints().get(j), oIDi).getRelForbidRegions(oIDs[i]));
-                            }
-                        }
-                        //has to saturate once again
-                        nonFix = true;
-                    }
-                    if (stp.opt.debug) {
-                        System.out.println(String.format("***Result of FilterCstrs:%s", o));
+                }
+                int slot = batch[b];
+                GeostObject o = stp.getObject(slotOid[slot]);
+                int domainsSize = o.calculateDomainSize();
+                for (int j = 0; j < k; j++) {
+                    o.getCoord(j).updateBounds(batchLb[b * k + j], batchUb[b * k + j], this.constraint);
+                }
+                if (domainsSize != o.calculateDomainSize()) {
+                    refreshFrames(o, ectrs);
+                    for (int d : dependents[slot]) {
+                        worklist.push(d);
                     }
                 }
-
             }
+        }
+        for (int b = 0; b < nbOthers; b++) {
+            if (!filterSlot(k, others[b], ectrs)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            //?????
-            //Ensure that all internal constraint containing a variable
-            //update those variables based on the new domain of the objects.
-            for (ExternalConstraint ectr : ectrs) {
-                if (ectr instanceof DistLeq) {
-                    DistLeq dl = (DistLeq) ectr;
-                    ForbiddenRegionFrame f = (ForbiddenRegionFrame) externalLayer.InitFrameExternalConstraint(ectr, oIDs);
-                    DistLeqIC ic = new DistLeqIC(stp, f.q, f.D, f.s1, f.s2, f.o1, f.o2, dl.getDistanceVar());
-                    nonFix = nonFix || ic.updateDistance(k);
-                }
+    /**
+     * Sweeps the first nb objects of batch with one {@link SweepWorker} per thread.
+     */
+    private void sweepInParallel(int k, int nb) {
+        if (batchLb.length < nb * k) {
+            batchLb = new int[batch.length * k];
+            batchUb = new int[batch.length * k];
+        }
+        runOnWorkers(k, nb, (w, b) -> {
+            GeostObject o = stp.getObject(slotOid[batch[b]]);
+            batchFeasible[b] = w.filter(o, o.getShapeId().getValue(), batchLb, batchUb, b * k);
+        });
+    }
 
-                if (ectr instanceof DistGeq) {
-                    DistGeq dg = (DistGeq) ectr;
-                    ForbiddenRegionFrame f = (ForbiddenRegionFrame) externalLayer.InitFrameExternalConstraint(ectr, oIDs);
-                    DistGeqIC ic = new DistGeqIC(stp, f.q, f.D, f.s1, f.s2, f.o1, f.o2, dg.getDistanceVar());
-                    nonFix = nonFix || ic.updateDistance(k);
+    /**
+     * Runs task on the indices [0,nb), spread over the workers. The indices are run by the current thread when the
+     * filtering is sequential.
+     */
+    private void runOnWorkers(int k, int nb, ObjIntConsumer<SweepWorker> task) {
+        if (workers == null) {
+            workers = new SweepWorker[Math.max(1, stp.opt.parallelism)];
+            for (int t = 0; t < workers.length; t++) {
+                workers[t] = new SweepWorker(externalLayer, k, originGrid != null);
+            }
+        }
+        int p = Math.min(workers.length, nb);
+        if (p < 2) {
+            for (int b = 0; b < nb; b++) {
+                task.accept(workers[0], b);
+            }
+            workers[0].coalescer.reportTo(stp.opt);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(p);
+        for (int t = 0; t < p; t++) {
+            final int first = t;
+            tasks.add(() -> {
+                SweepWorker w = workers[first];
+                for (int b = first; b < nb; b += p) {
+                    task.accept(w, b);
                 }
+                return null;
+            });
+        }
+        invokeAll(tasks, "filter objects");
+        stp.opt.parallelBatches++;
+        for (int t = 0; t < p; t++) {
+            workers[t].coalescer.reportTo(stp.opt);
+        }
+    }
 
-
+    /**
+     * Runs the tasks on the shared pool of stp.opt.parallelism threads and waits for all of them. what describes the tasks in the error messages.
+     */
+    private void invokeAll(List<Callable<Void>> tasks, String what) {
+        ForkJoinPool pool = POOLS.computeIfAbsent(stp.opt.parallelism, ForkJoinPool::new);
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) {
+                f.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolverException("GeometricKernel:interrupted while trying to " + what + " in parallel");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SolverException("GeometricKernel:unable to " + what + " in parallel: " + e.getCause());
+        }
+    }
 
+    /**
+     * Builds the frames of all the external constraints from scratch. Frames built this way are not restored on
+     * backtrack, so the frames kept by filterCtrs from one call to the other are invalidated.
+     *
+     * @param oIDs  The list of object IDs
+     * @param ectrs The list of external constraints
+     */
+    public void initFrames(int[] oIDs, List<ExternalConstraint> ectrs) {
+        for (int i = 0; i < ectrs.size(); i++) {
+            ectrs.get(i).setFrame(externalLayer.InitFrameExternalConstraint(ectrs.get(i), oIDs));
         }
+        frameGeneration++;
+    }
 
-        stp.opt.propag_failed = false;
+    /**
+     * Recomputes the relative forbidden regions of o in the frames of the non-distance external constraints. The
+     * former regions are restored on backtrack.
+     */
+    private void refreshFrames(GeostObject o, List<ExternalConstraint> ectrs) {
+        int[] oIDi = {o.getObjectId()};
+        for (int j = 0; j < ectrs.size(); j++) {
+            ExternalConstraint ectr = ectrs.get(j);
+            if (!isDistance(ectr)) {
+                ectr.getFrame().setForbidRegions(o.getObjectId(),
+                        externalLayer.InitFrameExternalConstraint(ectr, oIDi).getRelForbidRegions(o.getObjectId()),
+                        solver.getEnvironment());
+            }
+        }
+    }
 
-        if (stp.opt.try_propagation) {
-            stp.g_constraint.fails();
+    /**
+     * Tells whether the last call to filterCtrs skipped the filtering of the objects, which happens when a distance
+     * constraint leaves its distance variable unchanged. The objects are then not known to be at fixpoint.
+     */
+    public boolean hasSkippedFiltering() {
+        return skipped;
+    }
+
+    /**
+     * Updates the distance variables of the distance constraints according to the current domains of the objects.
+     * The first object of each constraint whose distance variable changed is queued to be filtered again.
+     *
+     * @return true if every distance constraint updated its distance variable
+     */
+    private boolean updateDistances(int k, int[] oIDs, List<ExternalConstraint> ectrs) throws ContradictionException {
+        boolean all = true;
+        for (ExternalConstraint ectr : ectrs) {
+            if (ectr instanceof DistLeq) {
+                DistLeq dl = (DistLeq) ectr;
+                ForbiddenRegionFrame f = (ForbiddenRegionFrame) externalLayer.InitFrameExternalConstraint(ectr, oIDs);
+                DistLeqIC ic = new DistLeqIC(stp, f.q, f.D, f.s1, f.s2, f.o1, f.o2, dl.getDistanceVar());
+                if (ic.updateDistance(k)) {
+                    worklist.push(slotOf.get(dl.o1));
+                } else {
+                    all = false;
+                }
+            }
+
+            if (ectr instanceof DistGeq) {
+                DistGeq dg = (DistGeq) ectr;
+                ForbiddenRegionFrame f = (ForbiddenRegionFrame) externalLayer.InitFrameExternalConstraint(ectr, oIDs);
+                DistGeqIC ic = new DistGeqIC(stp, f.q, f.D, f.s1, f.s2, f.o1, f.o2, dg.getDistanceVar());
+                if (ic.updateDistance(k)) {
+                    worklist.push(slotOf.get(dg.o1));
+                } else {
+                    all = false;
+                }
+            }
         }
+        return all;
+    }
 
-        return true;
+    /**
+     * Gives a slot to each object and computes, for each object, the objects to filter again once it is pruned:
+     * the object itself, the other objects of its non-distance external constraints and the first object of the
+     * distance constraints where it is the second object. The set of objects never changes, so this is done once.
+     */
+    private void initWorklist(int[] oIDs, List<ExternalConstraint> ectrs) {
+        if (worklist != null) {
+            return;
+        }
+        int n = oIDs.length;
+        slotOf = new HashMap<>(n);
+        slotOid = new int[n];
+        for (int i = 0; i < n; i++) {
+            slotOf.put(oIDs[i], i);
+            slotOid[i] = oIDs[i];
+        }
+        List<Set<Integer>> deps = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Set<Integer> d = new LinkedHashSet<>();
+            d.add(i);
+            deps.add(d);
+        }
+        for (ExternalConstraint ectr : ectrs) {
+            hasDistance |= isDistance(ectr);
+            if (ectr instanceof DistLeq) {
+                DistLeq dl = (DistLeq) ectr;
+                deps.get(slotOf.get(dl.o2)).add(slotOf.get(dl.o1));
+            } else if (ectr instanceof DistGeq) {
+                DistGeq dg = (DistGeq) ectr;
+                deps.get(slotOf.get(dg.o2)).add(slotOf.get(dg.o1));
+            } else if (!(ectr instanceof DistLinear)) {
+                for (int o1 : ectr.getObjectIds()) {
+                    for (int o2 : ectr.getObjectIds()) {
+                        deps.get(slotOf.get(o1)).add(slotOf.get(o2));
+                    }
+                }
+            }
+        }
+        dependents = new int[n][];
+        for (int i = 0; i < n; i++) {
+            dependents[i] = new int[deps.get(i).size()];
+            int j = 0;
+            for (int d : deps.get(i)) {
+                dependents[i][j++] = d;
+            }
+        }
+        worklist = new ObjectWorklist(n);
+        witnesses = new int[n][][];
+        batch = new int[n];
+        others = new int[n];
+        batchFeasible = new boolean[n];
     }
 
     /**
@@ -328,7 +902,15 @@ public final class GeometricKernel {
                 maxG[d] = o.getCoord(d).getLB() - 1;
             }
 
-            //
+            if (canFilterShapes(o)) {
+                filterShapes(k, o, minG, maxG);
+                for (int d = 0; d < k; d++) {
+                    o.getCoord(d).updateLowerBound(minG[d], this.constraint);
+                    o.getCoord(d).updateUpperBound(maxG[d], this.constraint);
+                }
+                return true;
+            }
+
             PropagationEngine cengine = solver.getEngine();
             for (int sid = o.getShapeId().getLB(); sid <= o.getShapeId().getUB(); sid = o.getShapeId().nextValue(sid)) {
 
@@ -367,11 +949,68 @@ public final class GeometricKernel {
                     }
                 }
             }
-            for (int d = 0; d < k; d++) {
-                o.getCoord(d).updateLowerBound(minG[d], this.constraint);
-                o.getCoord(d).updateUpperBound(maxG[d], this.constraint);
+            for (int d = 0; d < k; d++) {
+                o.getCoord(d).updateLowerBound(minG[d], this.constraint);
+                o.getCoord(d).updateUpperBound(maxG[d], this.constraint);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Tells whether the shapes of o can be evaluated by {@link #filterShapes}: the internal constraints of o have to be
+     * outboxes filtered in box mode, without any trace or serialization.
+     */
+    private boolean canFilterShapes(GeostObject o) {
+        if (!stp.opt.boxModeOnly || stp.opt.useNumericEngine
+                || stp.opt.debug || stp.opt.processing || stp.opt.serial != null) {
+            return false;
+        }
+        for (ExternalConstraint ectr : o.getRelatedExternalConstraints()) {
+            if (isDistance(ectr)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sweeps o once for each value of its shape variable, on private copies of its bounds, so that neither the
+     * variables nor the propagation engine are involved. The shapes are evaluated concurrently when several threads
+     * are allowed. The shapes for which o cannot be placed are then removed, and the bounds found for the other ones
+     * are merged into minG and maxG.
+     */
+    private void filterShapes(int k, GeostObject o, int[] minG, int[] maxG) throws ContradictionException {
+        IntVar shape = o.getShapeId();
+        int nb = 0;
+        int[] sids = new int[shape.getDomainSize()];
+        for (int sid = shape.getLB(); sid <= shape.getUB(); sid = shape.nextValue(sid)) {
+            sids[nb++] = sid;
+        }
+        boolean[] feasible = new boolean[nb];
+        int[] min = new int[nb * k];
+        int[] max = new int[nb * k];
+        runOnWorkers(k, nb, (w, s) -> feasible[s] = w.filter(o, sids[s], min, max, s * k));
+        for (int s = 0; s < nb; s++) {
+            if (!feasible[s]) {
+                shape.removeValue(sids[s], this.constraint);
+            } else {
+                //Take the union of the pruning, that is consider the greatest forbidden region.
+                for (int d = 0; d < k; d++) {
+                    minG[d] = Math.min(min[s * k + d], minG[d]);
+                    maxG[d] = Math.max(max[s * k + d], maxG[d]);
+                }
             }
-            return true;
+        }
+    }
+
+    /**
+     * Coalesces the internal constraints just generated for o, unless the coalescing option is off.
+     */
+    private void coalesce(GeostObject o) {
+        if (stp.opt.coalescing) {
+            coalescer.coalesce(o.getRelatedInternalConstraints(), o.getOutboxArena());
+            coalescer.reportTo(stp.opt);
         }
     }
 
@@ -391,15 +1030,36 @@ public final class GeometricKernel {
         }
         GeostObject o = stp.getObject(oid);
 
-        o.getRelatedInternalConstraints().clear();
+        o.clearInternalConstraints();
 
         for (int i = 0; i < o.getRelatedExternalConstraints().size(); i++) {
-            List<InternalConstraint> v = externalLayer.genInternalCtrs(o.getRelatedExternalConstraints().get(i), o);
+            List<InternalConstraint> v = externalLayer.genInternalCtrs(o.getRelatedExternalConstraints().get(i), o, o.getOutboxArena());
             for (int j = 0; j < v.size(); j++) {
                 o.addRelatedInternalConstraint(v.get(j));
             }
         }
+        coalesce(o);
+        frIndex.build(k, o.getRelatedInternalConstraints(), o.getOutboxArena());
+        try {
+            return filterObj(o, k);
+        } finally {
+            frIndex.clear();
+        }
+    }
+
+    /**
+     * Indexes the internal constraints of o in frIndex, as filterObj and fixObj do before their sweeps, so that the
+     * sweeps can be run on their own. The index is used until the next filterObj, fixObj or fixAllObjs_incr, the
+     * internal constraints of o must not be modified meanwhile.
+     */
+    void indexInternalConstraints(GeostObject o, int k) {
+        frIndex.build(k, o.getRelatedInternalConstraints(), o.getOutboxArena());
+    }
 
+    /**
+     * The filtering of {@link #filterObj(int, int)} once the internal constraints of o are generated and indexed.
+     */
+    private boolean filterObj(GeostObject o, int k) throws ContradictionException {
         if ((stp.opt.processing)) {
             System.out.println("\n/*Processing*/endchunk();\n/*Processing*/break;" + "case " + (stp.opt.phase++) + ":\n/*Processing*/beginchunk();");
             System.out.println(String.format("\n/*Processing*/domain(%d,%d,%d,%d,%d);", o.getObjectId(), o.getCoord(0).getLB(), o.getCoord(0).getUB(), o.getCoord(1).getLB(), o.getCoord(1).getUB()));
@@ -424,12 +1084,32 @@ public final class GeometricKernel {
             engine.prune(o, k, o.getRelatedInternalConstraints()); //throws a contradiction exception in case of failure
         }
 
+        if (stp.opt.boxModeOnly && !o.getRelatedInternalConstraints().isEmpty()) {
+            if (canProjectOriginGrid(o)) {
+                return projectOriginGrid(o, k);
+            }
+            // the serialization of the sweeps writes the object, whose bounds have to be up to date
+            if (stp.opt.serial == null) {
+                sweptSlot = slotOfSwept(o);
+                try {
+                    return sweepInPass(o, k, o.getRelatedInternalConstraints());
+                } finally {
+                    sweptSlot = -1;
+                }
+            }
+        }
+
         for (int d = 0; d < k; d++) {
 
             if (!o.getRelatedInternalConstraints().isEmpty()) {
                 if (stp.opt.boxModeOnly) {
-                    if ((!pruneMin(o, d, k, o.getRelatedInternalConstraints())) || (!pruneMax(o, d, k, o.getRelatedInternalConstraints()))) {
-                        return false; //means that a placement was not found
+                    sweptSlot = slotOfSwept(o);
+                    try {
+                        if ((!pruneMin(o, d, k, o.getRelatedInternalConstraints())) || (!pruneMax(o, d, k, o.getRelatedInternalConstraints()))) {
+                            return false; //means that a placement was not found
+                        }
+                    } finally {
+                        sweptSlot = -1;
                     }
                 } else if (stp.opt.propModeOnly) {
                     if ((!newPruneMin(o, d, k, o.getRelatedInternalConstraints())) || (!newPruneMax(o, d, k, o.getRelatedInternalConstraints()))) {
@@ -448,6 +1128,61 @@ public final class GeometricKernel {
     }
 
 
+    /**
+     * Returns the slot of o, or -1 when what the sweeps find for o cannot be kept: no filterCtrs pass has set up the
+     * slots, or the shape of o is not fixed.
+     */
+    private int slotOfSwept(GeostObject o) {
+        if (worklist == null || !o.getShapeId().isInstantiated()) {
+            return -1;
+        }
+        Integer slot = slotOf.get(o.getObjectId());
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Checks whether the point where the last sweep of the given bound of o stopped still supports that bound: it
+     * lies on the bound, within the bounds of the other dimensions, and no internal constraint forbids it. The sweep
+     * would then stop at the bound itself, so it can be skipped. The witness is checked against the current domains
+     * and internal constraints each time, it does not need to be restored on backtrack.
+     */
+    private boolean isSupportedByWitness(GeostObject o, int d, int k, List<InternalConstraint> ictrs, boolean increase) {
+        if (sweptSlot < 0 || !stp.opt.witnesses || witnesses[sweptSlot] == null) {
+            return false;
+        }
+        int[] w = witnesses[sweptSlot][increase ? d : k + d];
+        if (w == null || w[d] != (increase ? lbOf(o, d) : ubOf(o, d))) {
+            return false;
+        }
+        for (int j = 0; j < k; j++) {
+            if (w[j] < lbOf(o, j) || w[j] > ubOf(o, j)) {
+                return false;
+            }
+        }
+        for (int j = 0; j < k; j++) {
+            sweepPoint.setCoord(j, w[j]);
+            sweepJump.setCoord(j, increase ? ubOf(o, j) + 1 : lbOf(o, j) - 1);
+        }
+        return !getFR(d, k, o, sweepPoint, sweepJump, ictrs, increase, sweepRegion);
+    }
+
+    /**
+     * Records c, the feasible point where the sweep of the given bound of o stopped.
+     */
+    private void setWitness(Point c, int d, int k, boolean increase) {
+        if (sweptSlot < 0 || !stp.opt.witnesses) {
+            return;
+        }
+        if (witnesses[sweptSlot] == null) {
+            witnesses[sweptSlot] = new int[2 * k][];
+        }
+        int i = increase ? d : k + d;
+        if (witnesses[sweptSlot][i] == null) {
+            witnesses[sweptSlot][i] = new int[k];
+        }
+        System.arraycopy(c.getCoords(), 0, witnesses[sweptSlot][i], 0, k);
+    }
+
     /**
      * Adjusts the lower bound of the d^th coordinate of the origin of the  object o according to the set of internal constraints associated with  object o.
      *
@@ -471,20 +1206,31 @@ public final class GeometricKernel {
         }
 
         boolean b = true;
-        Point c = new Point(k);
-        Point n = new Point(k);
+        ensureSweepBuffers(k);
+        if (isSupportedByWitness(o, d, k, ictrs, true)) {
+            return true;
+        }
+        if (canSweepUnrolled(o, k, ictrs)) {
+            if (!unrolled.pruneMin(d, sweepLb, sweepUb, sweepPoint, boxFinder)) {
+                return false;
+            }
+            updateLowerBound(o, d, sweepPoint.getCoord(d));
+            setWitness(sweepPoint, d, k, true);
+            return true;
+        }
+        Point c = sweepPoint;
+        Point n = sweepJump;
+        Region f = sweepRegion;
 
-        for (int i = 0; i < o.getCoordinates().length; i++) {
-            c.setCoord(i, o.getCoord(i).getLB()); // Initial position of point
-            n.setCoord(i, o.getCoord(i).getUB() + 1); // Upper limits + 1 in the different dimensions
+        loadBounds(o, k);
+        for (int i = 0; i < k; i++) {
+            c.setCoord(i, sweepLb[i]); // Initial position of point
+            n.setCoord(i, sweepUb[i] + 1); // Upper limits + 1 in the different dimensions
         }
 //        System.out.println("A");
-        List forbidRegion = getFR(d, k, o, c, n, ictrs, true);
+        boolean infeasible = getFR(d, k, o, c, n, ictrs, true, f);
         //System.out.println("GetFR(d:"+d+",k:"+k+",o:"+o+",c:"+c+",n:"+c+",ACTRS:,true -> "+forbidRegion);
 
-        boolean infeasible = (Boolean) forbidRegion.get(0);
-        Region f = (Region) forbidRegion.get(1);
-
         if (stp.opt.serial != null) {
             try {
                 stp.opt.serial.writeObject(c);
@@ -507,11 +1253,8 @@ public final class GeometricKernel {
 
 //            Point initial_c = new Point(c);     //create a copy
 //        System.out.println("C");
-            List adjUp = adjustUp(c, n, o, d, k); // update the position of c to check
+            b = adjustUp(c, n, sweepLb, sweepUb, d, k); // update the position of c to check
             //System.out.println("c:"+c+",n:"+n+",o:"+o+",d:"+d+",k:"+k);
-            c = (Point) adjUp.get(0);
-            n = (Point) adjUp.get(1);
-            b = (Boolean) adjUp.get(2);
 
 //            if (stp.opt.delta.get(ddeltadelt)==null) stp.opt.delta.put(d,new HashMap<Integer,Integer>());
 //            HashMap<Integer,Integer> curDelta= stp.opt.delta.get(d);
@@ -520,11 +1263,9 @@ public final class GeometricKernel {
 //            curDelta.put(delta,curDelta.get(delta)+1);
 
             //System.out.println("E:"+c);
-            forbidRegion = getFR(d, k, o, c, n, ictrs, true);
+            infeasible = getFR(d, k, o, c, n, ictrs, true, f);
             //System.out.println("GetFR(d:"+d+",k:"+k+",o:"+o+",c:"+c+",n:"+c+",ACTRS:,true -> "+forbidRegion);
             //System.out.println("F");
-            infeasible = (Boolean) forbidRegion.get(0);
-            f = (Region) forbidRegion.get(1);
 
             if (stp.opt.serial != null) {
                 try {
@@ -547,8 +1288,9 @@ public final class GeometricKernel {
 //
 //            stp.opt.GetFRCalls++;
 //
-            o.getCoord(d).updateLowerBound(c.getCoord(d), this.constraint);
+            updateLowerBound(o, d, c.getCoord(d));
 //            cst.nbOfUpdates++;
+            setWitness(c, d, k, true);
         }
 
 
@@ -569,9 +1311,8 @@ public final class GeometricKernel {
      */
 
 
-    static List adjustUp(Point c, Point n, GeostObject o, int d, int k) {
+    static boolean adjustUp(Point c, Point n, GeostObject o, int d, int k) {
         //System.out.println("Adjust Up("+c+","+ n+",?,"+d+","+k  +")");
-        List<Object> result = new ArrayList<>(3);
         int jPrime = 0;
         int j = k - 1;
         while (j >= 0) {
@@ -579,21 +1320,30 @@ public final class GeometricKernel {
             c.setCoord(jPrime, n.getCoord(jPrime));
             n.setCoord(jPrime, o.getCoord(jPrime).getUB() + 1);
             if (c.getCoord(jPrime) <= o.getCoord(jPrime).getUB()) {
-                result.clear();
-                result.add(0, c);
-                result.add(1, n);
-                result.add(2, true);
-                return result;
+                return true;
             } else {
                 c.setCoord(jPrime, o.getCoord(jPrime).getLB());
             }
             j--;
         }
-        result.clear();
-        result.add(0, c);
-        result.add(1, n);
-        result.add(2, false);
-        return result;
+        return false;
+    }
+
+    /**
+     * Same as {@link #adjustUp(Point, Point, GeostObject, int, int)} within the bounds [lb,ub] rather than the bounds
+     * of the variables of the object.
+     */
+    static boolean adjustUp(Point c, Point n, int[] lb, int[] ub, int d, int k) {
+        for (int j = k - 1; j >= 0; j--) {
+            int jPrime = (j + d) % k;
+            c.setCoord(jPrime, n.getCoord(jPrime));
+            n.setCoord(jPrime, ub[jPrime] + 1);
+            if (c.getCoord(jPrime) <= ub[jPrime]) {
+                return true;
+            }
+            c.setCoord(jPrime, lb[jPrime]);
+        }
+        return false;
     }
 
     /**
@@ -607,19 +1357,32 @@ public final class GeometricKernel {
      */
     boolean pruneMax(GeostObject o, int d, int k, List<InternalConstraint> ictrs) throws ContradictionException {
         boolean b = true;
-        Point c = new Point(k);
-        Point n = new Point(k);
+        ensureSweepBuffers(k);
+        if (isSupportedByWitness(o, d, k, ictrs, false)) {
+            return true;
+        }
+        if (canSweepUnrolled(o, k, ictrs)) {
+            if (!unrolled.pruneMax(d, sweepLb, sweepUb, sweepPoint, boxFinder)) {
+                return false;
+            }
+            updateUpperBound(o, d, sweepPoint.getCoord(d));
+            cst.nbOfUpdates++;
+            setWitness(sweepPoint, d, k, false);
+            return true;
+        }
+        Point c = sweepPoint;
+        Point n = sweepJump;
+        Region f = sweepRegion;
 
 
-        for (int i = 0; i < o.getCoordinates().length; i++) {
-            c.setCoord(i, o.getCoord(i).getUB()); // Initial position of point
-            n.setCoord(i, o.getCoord(i).getLB() - 1); // Lower limits - 1 in the different dimensions
+        loadBounds(o, k);
+        for (int i = 0; i < k; i++) {
+            c.setCoord(i, sweepUb[i]); // Initial position of point
+            n.setCoord(i, sweepLb[i] - 1); // Lower limits - 1 in the different dimensions
         }
 
 
-        List forbidRegion = getFR(d, k, o, c, n, ictrs, false);
-        boolean infeasible = (Boolean) forbidRegion.get(0);
-        Region f = (Region) forbidRegion.get(1);
+        boolean infeasible = getFR(d, k, o, c, n, ictrs, false, f);
         while (b && infeasible) {
             for (int i = 0; i < k; i++) {
                 // update n according to f
@@ -627,10 +1390,7 @@ public final class GeometricKernel {
             }
 //            Point initial_c = new Point(c);     //create a copy
 
-            List adjDown = adjustDown(c, n, o, d, k);// update the position of c to check
-            c = (Point) adjDown.get(0);
-            n = (Point) adjDown.get(1);
-            b = (Boolean) adjDown.get(2);
+            b = adjustDown(c, n, sweepLb, sweepUb, d, k);// update the position of c to check
 
 //            if (stp.opt.delta.get(d)==null) stp.opt.delta.put(d,new HashMap<Integer,Integer>());
 //            HashMap<Integer,Integer> curDelta= stp.opt.delta.get(d);
@@ -639,14 +1399,13 @@ public final class GeometricKernel {
 //            curDelta.put(delta,curDelta.get(delta)+1);
 
 
-            forbidRegion = getFR(d, k, o, c, n, ictrs, false);
-            infeasible = (Boolean) forbidRegion.get(0);
-            f = (Region) forbidRegion.get(1);
+            infeasible = getFR(d, k, o, c, n, ictrs, false, f);
         }
 
         if (b) {
-            o.getCoord(d).updateUpperBound(c.getCoord(d), this.constraint);
+            updateUpperBound(o, d, c.getCoord(d));
             cst.nbOfUpdates++;
+            setWitness(c, d, k, false);
         }
 
         return b;
@@ -655,8 +1414,7 @@ public final class GeometricKernel {
     /**
      * Moves down to the next feasible point, this function is used by the PruneMax function.
      */
-    static List adjustDown(Point c, Point n, GeostObject o, int d, int k) {
-        List<Object> result = new ArrayList<>(3);
+    static boolean adjustDown(Point c, Point n, GeostObject o, int d, int k) {
         int jPrime = 0;
         int j = k - 1;
         while (j >= 0) {
@@ -664,21 +1422,29 @@ public final class GeometricKernel {
             c.setCoord(jPrime, n.getCoord(jPrime));
             n.setCoord(jPrime, o.getCoord(jPrime).getLB() - 1);
             if (c.getCoord(jPrime) >= o.getCoord(jPrime).getLB()) {
-                result.clear();
-                result.add(0, c);
-                result.add(1, n);
-                result.add(2, true);
-                return result;
+                return true;
             } else {
                 c.setCoord(jPrime, o.getCoord(jPrime).getUB());
             }
             j--;
         }
-        result.clear();
-        result.add(0, c);
-        result.add(1, n);
-        result.add(2, false);
-        return result;
+        return false;
+    }
+
+    /**
+     * Same as {@link #adjustDown(Point, Point, GeostObject, int, int)} within the bounds [lb,ub].
+     */
+    static boolean adjustDown(Point c, Point n, int[] lb, int[] ub, int d, int k) {
+        for (int j = k - 1; j >= 0; j--) {
+            int jPrime = (j + d) % k;
+            c.setCoord(jPrime, n.getCoord(jPrime));
+            n.setCoord(jPrime, lb[jPrime] - 1);
+            if (c.getCoord(jPrime) >= lb[jPrime]) {
+                return true;
+            }
+            c.setCoord(jPrime, ub[jPrime]);
+        }
+        return false;
     }
 
     /**
@@ -693,10 +1459,7 @@ public final class GeometricKernel {
      */
     public boolean fixAllObjs(int k, int[] oIDs, List<ExternalConstraint> ectrs, List<int[]> ctrlVs, IStateInt idxLastFreeObject) throws ContradictionException {
         //System.out.println("FixallObjs");
-        for (int i = 0; i < ectrs.size(); i++) {
-            ectrs.get(i).setFrame(externalLayer.InitFrameExternalConstraint(ectrs.get(i), oIDs));
-
-        }
+        initFrames(oIDs, ectrs);
         int nbOfCtrlV = ctrlVs.size();
         int lastIdx = idxLastFreeObject.get();
         for (int i = 0; i < lastIdx; i++) {
@@ -713,12 +1476,9 @@ public final class GeometricKernel {
                 return false;
             } else {
                 for (int j = 0; j < o.getRelatedExternalConstraints().size(); j++) {
-                    if (!((o.getRelatedExternalConstraints().get(j) instanceof DistLeq)
-                            || (o.getRelatedExternalConstraints().get(j) instanceof DistGeq)
-                            || (o.getRelatedExternalConstraints().get(j) instanceof DistLinear))) {
+                    if (!isDistance(o.getRelatedExternalConstraints().get(j))) {
                         int[] oIDi = {oIDs[i]};
-                        o.getRelatedExternalConstraints().get(j).getFrame().getRelForbidRegions().remove(o.getObjectId());
-                        o.getRelatedExternalConstraints().get(j).getFrame().getRelForbidRegions().put(o.getObjectId(), externalLayer.InitFrameExternalConstraint(o
+                        o.getRelatedExternalConstraints().get(j).getFrame().addForbidRegions(o.getObjectId(), externalLayer.InitFrameExternalConstraint(o
                                 .getRelatedExternalConstraints().get(j), oIDi).getRelForbidRegions(oIDs[i]));
                     }
                 }
@@ -732,23 +1492,144 @@ public final class GeometricKernel {
         return true;
     }
 
+    /**
+     * Tells whether {@link #fixAllObjsInParallel} can be used in place of fixAllObjs: the option has to be set, all
+     * the external constraints have to be non-overlapping constraints and there must be at least two attempts to run.
+     * The memoisation of the sweep points is sequential by nature, it is not supported.
+     */
+    public boolean canFixInParallel(List<ExternalConstraint> ectrs, List<int[]> ctrlVs) {
+        if (stp.opt.parallelism < 2 || memo.active || stp.opt.debug || greedyAttempts(ctrlVs) < 2) {
+            return false;
+        }
+        for (int i = 0; i < ectrs.size(); i++) {
+            if (!(ectrs.get(i) instanceof NonOverlapping)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The number of attempts of fixAllObjsInParallel: each controlling vector is tried with the objects in the order of
+     * fixAllObjs, then with the largest objects first, as long as there are threads for them.
+     */
+    private int greedyAttempts(List<int[]> ctrlVs) {
+        return Math.min(stp.opt.parallelism, 2 * ctrlVs.size());
+    }
+
+    /**
+     * Same as {@link #fixAllObjs}, except that several greedy placements are tried at the same time, one per
+     * controlling vector and order of the objects, each by a {@link GreedyWorker}. The first attempt that places all the
+     * objects is kept, first in the order of the attempts and not in time: the first one is the placement of
+     * fixAllObjs, and the result does not depend on the scheduling of the threads. The attempts after
+     * it are given up once it succeeds.
+     *
+     * @param k                 The total number of dimensions (The dimension of the space we are working in)
+     * @param oIDs              The list of object IDs
+     * @param ectrs             The list of external constraints
+     * @param ctrlVs            The list of controlling vectors
+     * @param idxLastFreeObject
+     * @return It return true if one of the attempts fixes all the objects. Otherwise it returns false, and no variable
+     *         is modified.
+     */
+    public boolean fixAllObjsInParallel(int k, int[] oIDs, List<ExternalConstraint> ectrs, List<int[]> ctrlVs, IStateInt idxLastFreeObject) throws ContradictionException {
+        initFrames(oIDs, ectrs);
+        int nbOfCtrlV = ctrlVs.size();
+        int lastIdx = idxLastFreeObject.get();
+        int attempts = greedyAttempts(ctrlVs);
+        if (greedyWorkers == null || greedyWorkers.length < attempts) {
+            greedyWorkers = new GreedyWorker[attempts];
+            for (int a = 0; a < attempts; a++) {
+                greedyWorkers[a] = new GreedyWorker(externalLayer, k, originTable != null);
+            }
+        }
+        // fixAllObjs fixes oIDs[0], then swaps it with the last free object and starts again from index 0
+        int[] order = new int[lastIdx];
+        for (int q = 0; q < lastIdx; q++) {
+            order[q] = q == 0 ? oIDs[0] : oIDs[lastIdx - q];
+        }
+        int[][] orders = new int[attempts][];
+        int[][] placements = new int[attempts][lastIdx * (k + 1)];
+        AtomicInteger first = new AtomicInteger(attempts);
+        List<Callable<Void>> tasks = new ArrayList<>(attempts);
+        for (int a = 0; a < attempts; a++) {
+            final int attempt = a;
+            tasks.add(() -> {
+                int[] ctrlV = ctrlVs.get(attempt % nbOfCtrlV);
+                orders[attempt] = attempt < nbOfCtrlV ? order : largestFirst(order, ctrlV[0] < 0);
+                if (greedyWorkers[attempt].place(orders[attempt], lastIdx, ctrlV, placements[attempt], () -> first.get() < attempt)) {
+                    first.accumulateAndGet(attempt, Math::min);
+                }
+                return null;
+            });
+        }
+        invokeAll(tasks, "fix the objects");
+        for (int a = 0; a < attempts; a++) {
+            greedyWorkers[a].coalescer.reportTo(stp.opt);
+        }
+        int a = first.get();
+        if (a == attempts) {
+            return false;
+        }
+        for (int q = 0; q < lastIdx; q++) {
+            GeostObject o = stp.getObject(orders[a][q]);
+            o.getShapeId().instantiateTo(placements[a][q * (k + 1)], this.constraint);
+            for (int j = 0; j < k; j++) {
+                o.getCoord(j).instantiateTo(placements[a][q * (k + 1) + 1 + j], this.constraint);
+            }
+            // the free objects end up in the order fixAllObjs leaves them
+            oIDs[lastIdx - 1 - q] = orders[a][q];
+        }
+        idxLastFreeObject.add(-lastIdx);
+        return true;
+    }
+
+    /**
+     * Returns the objects of order sorted by decreasing volume, with their smallest shape if lb is set and their
+     * largest one otherwise. Objects of the same volume stay in the same order.
+     */
+    private int[] largestFirst(int[] order, boolean lb) {
+        Integer[] sorted = new Integer[order.length];
+        long[] volume = new long[order.length];
+        for (int q = 0; q < order.length; q++) {
+            sorted[q] = q;
+            IntVar shape = stp.getObject(order[q]).getShapeId();
+            int[] boxes = stp.getShapeBoxes(lb ? shape.getLB() : shape.getUB());
+            int k = cst.getDIM();
+            for (int p = 0; p < boxes.length; p += 2 * k) {
+                long v = 1;
+                for (int j = 0; j < k; j++) {
+                    v *= boxes[p + k + j];
+                }
+                volume[q] += v;
+            }
+        }
+        Arrays.sort(sorted, (p, q) -> Long.compare(volume[q], volume[p]));
+        int[] result = new int[order.length];
+        for (int q = 0; q < order.length; q++) {
+            result[q] = order[sorted[q]];
+        }
+        return result;
+    }
 
     void relForbReg(GeostObject o)
-    //Update the relative forbidden region of the object oID.
+    //Update the relative forbidden region of the object oID in the frames of the non-distance external constraints.
     {
         int oID = o.getObjectId();
         int[] oIDi = {oID};
 
         for (int j = 0; j < o.getRelatedExternalConstraints().size(); j++) {
-            o.getRelatedExternalConstraints().get(j).getFrame().getRelForbidRegions().remove(o.getObjectId());
-            o.getRelatedExternalConstraints().get(j).getFrame().getRelForbidRegions().put(o.getObjectId(),
-                    externalLayer.InitFrameExternalConstraint(o.getRelatedExternalConstraints().get(j), oIDi).getRelForbidRegions(oID));
+            ExternalConstraint ectr = o.getRelatedExternalConstraints().get(j);
+            if (!isDistance(ectr)) {
+                ectr.getFrame().addForbidRegions(o.getObjectId(),
+                        externalLayer.InitFrameExternalConstraint(ectr, oIDi).getRelForbidRegions(oID));
+            }
         }
 
     }
 
     List<InternalConstraint> absForbReg(GeostObject o)
-    //returns the internal constraints of oID with itself
+    //returns the outboxes of oID with itself, for its non-distance external constraints
     {
         int oID = o.getObjectId();
         //o.getRelatedInternalConstraints().clear();
@@ -761,6 +1642,9 @@ public final class GeometricKernel {
 
         for (int ic = 0; ic < o.getRelatedExternalConstraints().size(); ic++) {
             ExternalConstraint ectr = o.getRelatedExternalConstraints().get(ic);
+            if (isDistance(ectr)) {
+                continue;
+            }
             NonOverlapping ectr_copy = new NonOverlapping(Constants.NON_OVERLAPPING, ectr.getDim(), oIDs);
             ectr_copy.getFrame().addForbidRegions(oID + 1, ectr.getFrame().getRelForbidRegions(oID));
             //Generate internal constraint for object o wrt to fake object oID+1 that contents rel forb reg of oID (that is itself)
@@ -774,6 +1658,10 @@ public final class GeometricKernel {
         return added;
     }
 
+    private static boolean isDistance(ExternalConstraint ectr) {
+        return (ectr instanceof DistLeq) || (ectr instanceof DistGeq) || (ectr instanceof DistLinear);
+    }
+
     private static boolean same_domain(int[][] old_domain, GeostObject o) {
         for (int i = 0; i < old_domain.length; i++) {
             if (old_domain[i][0] != o.getCoord(i).getDomainSize()) {
@@ -789,16 +1677,37 @@ public final class GeometricKernel {
         return true;
     }
 
-
+    /**
+     * Same as {@link #fixAllObjs}, but the internal constraints are kept from one object to the next instead of being
+     * generated again for each object. They come in two parts:
+     * <ul>
+     * <li>the outboxes of the non-distance external constraints, which only depend on the shape and the domain of the
+     * object swept. They are shared by consecutive objects with the same shape and domain, and the outboxes of each
+     * object fixed are added to them, see {@link #absForbReg};</li>
+     * <li>the internal constraints of the distance constraints of the object, generated for each object since they
+     * name the objects they relate. They read the domains of these objects when the object is swept, so they follow the
+     * objects fixed before it.</li>
+     * </ul>
+     *
+     * @param k                 The total number of dimensions (The dimension of the space we are working in)
+     * @param oIDs              The list of object IDs
+     * @param ectrs             The list of external constraints
+     * @param ctrlVs            The list of controlling vectors
+     * @param idxLastFreeObject
+     * @return It return true if we can fix all the objects. Otherwise it returns false.
+     */
     public boolean fixAllObjs_incr(int k, int[] oIDs, List<ExternalConstraint> ectrs, List<int[]> ctrlVs, IStateInt idxLastFreeObject) throws ContradictionException {
 
         Integer sid_prime = null;
         int[][] domain_prime = null;
-        List<InternalConstraint> ICTRS = Collections.emptyList();// = new ArrayList<InternalConstraint>(16);
+        // the outboxes shared by the objects with the same shape and domain, and the arena they were generated in, null
+        // once outboxes were added to boxes or merged in it
+        List<InternalConstraint> boxes = Collections.emptyList();
+        OutboxArena boxesArena = null;
+        // the outboxes followed by the distance internal constraints of the object swept
+        List<InternalConstraint> ICTRS = new ArrayList<>(16);
 
-        for (int i = 0; i < ectrs.size(); i++) {
-            ectrs.get(i).setFrame(externalLayer.InitFrameExternalConstraint(ectrs.get(i), oIDs));
-        }
+        initFrames(oIDs, ectrs);
 
         int nbOfCtrlV = ctrlVs.size();
         int lastIdx = idxLastFreeObject.get();
@@ -820,14 +1729,18 @@ public final class GeometricKernel {
 
             if ((!has_same_sid) || (!has_same_domain)) {
 
-                o.getRelatedInternalConstraints().clear();
+                o.clearInternalConstraints();
 
                 for (int ic = 0; ic < o.getRelatedExternalConstraints().size(); ic++) {
-                    List<InternalConstraint> v = externalLayer.genInternalCtrs(o.getRelatedExternalConstraints().get(ic), o);
-                    for (int j = 0; j < v.size(); j++) {
-                        o.addRelatedInternalConstraint(v.get(j));
+                    ExternalConstraint ectr = o.getRelatedExternalConstraints().get(ic);
+                    if (!isDistance(ectr)) {
+                        List<InternalConstraint> v = externalLayer.genInternalCtrs(ectr, o, o.getOutboxArena());
+                        for (int j = 0; j < v.size(); j++) {
+                            o.addRelatedInternalConstraint(v.get(j));
+                        }
                     }
                 }
+                coalesce(o);
 
                 sid_prime = o.getShapeId().getValue();
                 if (domain_prime == null) {
@@ -839,16 +1752,27 @@ public final class GeometricKernel {
                     domain_prime[l][2] = o.getCoord(l).getUB();
                 }
 
-                ICTRS = o.getRelatedInternalConstraints();
+                boxes = o.getRelatedInternalConstraints();
+                boxesArena = o.getOutboxArena();
             }
 
-//            System.out.println(ICTRS_.size()+" "+ICTRS.size());
-//            for (InternalConstraint ic : ICTRS_) System.out.println(ic.toString());
-//            System.out.println("--");
-//            for (InternalConstraint ic : ICTRS) System.out.println(ic.toString());
+            ICTRS.clear();
+            ICTRS.addAll(boxes);
+            for (int ic = 0; ic < o.getRelatedExternalConstraints().size(); ic++) {
+                ExternalConstraint ectr = o.getRelatedExternalConstraints().get(ic);
+                if (isDistance(ectr)) {
+                    ICTRS.addAll(externalLayer.genInternalCtrs(ectr, o));
+                }
+            }
+            frIndex.build(k, ICTRS, boxesArena);
 
             long tmpTimePruneFix = System.nanoTime() / ONE_MILLION;
-            boolean b = pruneFix(o, k, ctrlV, ICTRS);//do not use o internal constraints
+            boolean b;
+            try {
+                b = pruneFix(o, k, ctrlV, ICTRS);//do not use o internal constraints
+            } finally {
+                frIndex.clear();
+            }
             stp.opt.timePruneFix += ((System.nanoTime() / ONE_MILLION) - tmpTimePruneFix);
             if (!b) {
                 return false;
@@ -858,28 +1782,25 @@ public final class GeometricKernel {
             relForbReg(o);
 
             //Add the internal constraint of o with itself
-//            System.out.println("--");
-//            List<InternalConstraint> tmp = AbsForbReg(o);
-//            for (InternalConstraint ic : tmp) System.out.println(ic.toString());
-
             List<InternalConstraint> incr_ICTRS = absForbReg(o);
             //Note that the merging has been done in AbsForReg
 
-            if ((!ICTRS.isEmpty()) && (!incr_ICTRS.isEmpty())) {
-                try {
-                    Outbox old_ob = (Outbox) ICTRS.get(ICTRS.size() - 1);
-                    Outbox new_ob = (Outbox) incr_ICTRS.get(0);
-                    Pair<Outbox, Boolean> result;
-                    result = externalLayer.mergeAdjacent(new_ob, old_ob);
-                    if (result.snd) {
-                        new_ob = result.fst;
-                        incr_ICTRS.remove(0);
-                        incr_ICTRS.add(0, new_ob);
-                        ICTRS.remove(ICTRS.size() - 1);
-                    }
-                } catch (ClassCastException e) {/*Reached only if internal constraint is not an outbox*/}
+            if ((!boxes.isEmpty()) && (!incr_ICTRS.isEmpty())
+                    && (boxes.get(boxes.size() - 1) instanceof Outbox) && (incr_ICTRS.get(0) instanceof Outbox)) {
+                Outbox old_ob = (Outbox) boxes.get(boxes.size() - 1);
+                Outbox new_ob = (Outbox) incr_ICTRS.get(0);
+                Pair<Outbox, Boolean> result;
+                result = externalLayer.mergeAdjacent(new_ob, old_ob);
+                if (result.snd) {
+                    new_ob = result.fst;
+                    incr_ICTRS.set(0, new_ob);
+                    boxes.remove(boxes.size() - 1);
+                }
+            }
+            if (!incr_ICTRS.isEmpty()) {
+                boxes.addAll(incr_ICTRS);
+                boxesArena = null;
             }
-            ICTRS.addAll(incr_ICTRS);
             // swap ids between new fixed object and last free object
             int tmp = oIDs[i];
             oIDs[i--] = oIDs[--lastIdx];
@@ -912,23 +1833,29 @@ public final class GeometricKernel {
             o.getShapeId().instantiateTo(o.getShapeId().getUB(), this.constraint);
         }
 
-        o.getRelatedInternalConstraints().clear();
+        o.clearInternalConstraints();
 // Holes are not addded for now!
 //		for (int d = 0; d < k; d++) {
 //			// Add Possible outbox constraints corresponding to holes of o.coords[d]
 //		}
 
         for (int i = 0; i < o.getRelatedExternalConstraints().size(); i++) {
-            List<InternalConstraint> v = externalLayer.genInternalCtrs(o.getRelatedExternalConstraints().get(i), o);
+            List<InternalConstraint> v = externalLayer.genInternalCtrs(o.getRelatedExternalConstraints().get(i), o, o.getOutboxArena());
             for (int j = 0; j < v.size(); j++) {
                 o.addRelatedInternalConstraint(v.get(j));
             }
         }
+        coalesce(o);
+        frIndex.build(k, o.getRelatedInternalConstraints(), o.getOutboxArena());
         //System.out.println("before");
         //o.print();
         //long tmpTimePruneFix = System.nanoTime() / ONE_MILLION;
         //timePruneFix += ((System.nanoTime() / ONE_MILLION) - tmpTimePruneFix);
-        return pruneFix(o, k, ctrlV, o.getRelatedInternalConstraints());
+        try {
+            return pruneFix(o, k, ctrlV, o.getRelatedInternalConstraints());
+        } finally {
+            frIndex.clear();
+        }
     }
 
     /**
@@ -991,8 +1918,29 @@ public final class GeometricKernel {
             o.print();
         }
 
-        Point c = new Point(k);
-        Point n = new Point(k);
+        ensureSweepBuffers(k);
+        if (!memo.active && canPlaceWithOriginTable(o, k, ictrs)) {
+            if (!originTable.firstFree(ctrlV, sweepPoint)) {
+                return false;
+            }
+            for (int d = 0; d < k; d++) {
+                o.getCoord(d).instantiateTo(sweepPoint.getCoord(d), this.constraint);
+            }
+            return true;
+        }
+        if (!memo.active && canSweepUnrolled(o, k, ictrs)) {
+            if (!unrolled.pruneFix(ctrlV, sweepLb, sweepUb, sweepPoint, boxFinder)) {
+                return false;
+            }
+            for (int d = 0; d < k; d++) {
+                o.getCoord(d).instantiateTo(sweepPoint.getCoord(d), this.constraint);
+            }
+            return true;
+        }
+        Point c = sweepPoint;
+        Point n = sweepJump;
+        Region f = sweepRegion;
+        loadBounds(o, k);
         int dPrime = 0;
         for (int d = k - 1; d > -1; d--) {
             dPrime = Math.abs(ctrlV[d + 1]) - 2;
@@ -1011,10 +1959,8 @@ public final class GeometricKernel {
         }
 
         long tmpTimeGetFr = (System.nanoTime() / ONE_MILLION);
-        List forbidRegion = getFR(Math.abs(ctrlV[1]) - 2, k, o, c, n, ictrs, true);
+        boolean infeasible = getFR(Math.abs(ctrlV[1]) - 2, k, o, c, n, ictrs, true, f);
         stp.opt.timeGetFR += ((System.nanoTime() / ONE_MILLION) - tmpTimeGetFr);
-        boolean infeasible = (Boolean) forbidRegion.get(0);
-        Region f = (Region) forbidRegion.get(1);
         if (printit) {
             System.out.println("getFR region:" + f.toString());
         }
@@ -1041,27 +1987,7 @@ public final class GeometricKernel {
                 n.print();
             }
 
-            nextcand:
-            {
-                for (int d = k - 1; d > -1; d--) {
-                    dPrime = Math.abs(ctrlV[d + 1]) - 2;
-                    c.setCoord(dPrime, n.getCoord(dPrime));
-                    if (ctrlV[d + 1] < 0) {
-                        n.setCoord(dPrime, o.getCoord(dPrime).getUB() + 1);
-                        if (c.getCoord(dPrime) < n.getCoord(dPrime)) {
-                            break nextcand;
-                        } else {
-                            c.setCoord(dPrime, o.getCoord(dPrime).getLB());
-                        }
-                    } else {
-                        n.setCoord(dPrime, o.getCoord(dPrime).getLB() - 1);
-                        if (c.getCoord(dPrime) > n.getCoord(dPrime)) {
-                            break nextcand;
-                        } else {
-                            c.setCoord(dPrime, o.getCoord(dPrime).getUB());
-                        }
-                    }
-                }
+            if (!nextCandidate(c, n, sweepLb, sweepUb, ctrlV, k)) {
                 System.out.println("NO NEXT CANDIDATE WAS FOUND");
                 return false;
             }
@@ -1086,11 +2012,8 @@ public final class GeometricKernel {
                 c.print();
             }
             tmpTimeGetFr = (System.nanoTime() / ONE_MILLION);
-            forbidRegion = getFR(Math.abs(ctrlV[1]) - 2, k, o, c, n, ictrs, true);
+            infeasible = getFR(Math.abs(ctrlV[1]) - 2, k, o, c, n, ictrs, true, f);
             stp.opt.timeGetFR += ((System.nanoTime() / ONE_MILLION) - tmpTimeGetFr);
-
-            infeasible = (Boolean) forbidRegion.get(0);
-            f = (Region) forbidRegion.get(1);
             if (printit) {
                 System.out.println("region:" + f.toString());
             }
@@ -1121,6 +2044,33 @@ public final class GeometricKernel {
         return true;
     }
 
+    /**
+     * Moves c to the next point to check after a forbidden region, in the order of the controlling vector ctrlV and
+     * within the bounds [lb,ub]. This function is used by pruneFix.
+     *
+     * @return false if c was the last point of the bounds
+     */
+    static boolean nextCandidate(Point c, Point n, int[] lb, int[] ub, int[] ctrlV, int k) {
+        for (int d = k - 1; d >= 0; d--) {
+            int dPrime = Math.abs(ctrlV[d + 1]) - 2;
+            c.setCoord(dPrime, n.getCoord(dPrime));
+            if (ctrlV[d + 1] < 0) {
+                n.setCoord(dPrime, ub[dPrime] + 1);
+                if (c.getCoord(dPrime) < n.getCoord(dPrime)) {
+                    return true;
+                }
+                c.setCoord(dPrime, lb[dPrime]);
+            } else {
+                n.setCoord(dPrime, lb[dPrime] - 1);
+                if (c.getCoord(dPrime) > n.getCoord(dPrime)) {
+                    return true;
+                }
+                c.setCoord(dPrime, ub[dPrime]);
+            }
+        }
+        return false;
+    }
+
     /* Implementation of the curve mode Section 7.7. "Speeding up the feasible point search when the forbidden regions do not correspond to boxes"*/
 
     static Region lexMore(Region box, Region best_box, int d, int k, boolean increase) {
@@ -4295,14 +5245,11 @@ public final class GeometricKernel {
             if (stp.opt.debug) {
                 System.out.println("/*example*/Adjustup(c=" + c + ",n=" + n + ",o=" + o + ",d=" + d + ",k=" + k + ')');
             }
-            List adjUp = adjustUp(c, n, o, d, k); // update the position of c to check
+            b = adjustUp(c, n, o, d, k); // update the position of c to check
             if (stp.opt.debug) {
                 System.out.println("/*example*/returns c=" + c + ",n=" + n + ",b=" + b);
             }
 
-            c = (Point) adjUp.get(0);
-            n = (Point) adjUp.get(1);
-            b = (Boolean) adjUp.get(2);
             stp.opt.nbr_jumps++;
             local_nbr_jumps++;
             if (stp.opt.mixmode) {
@@ -4508,13 +5455,9 @@ public final class GeometricKernel {
             }
             initial_c = new Point(c);     //create a copy
 
-            List adjUp = adjustDown(c, n, o, d, k); // update the position of c to check
+            b = adjustDown(c, n, o, d, k); // update the position of c to check
             stp.opt.nbr_jumps++;
             local_nbr_jumps++;
-            //System.out.println(" returns $[c="+adjUp.get(0)+",n="+adjUp.get(1)+",b="+adjUp.get(2)+",mode="+adjUp.get(3)+"]$ ");
-            c = (Point) adjUp.get(0);
-            n = (Point) adjUp.get(1);
-            b = (Boolean) adjUp.get(2);
             if (stp.opt.mixmode) {
                 List rcts = checkTrashingState_dl(c, d, k, cdpl, f, bad_ratio, nbr_steps, mode);
                 bad_ratio = (Boolean) rcts.get(0);
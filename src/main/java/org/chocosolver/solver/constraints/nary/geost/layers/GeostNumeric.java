@@ -612,7 +612,7 @@ public final class GeostNumeric {
 //                if (ect instanceof DistLeq) {
 //                    DistLeq dl = (DistLeq) ect;
 //                    constraints+="constraint obj"+i+"_c"+nextCstr+"\n";
-//                    constraints+=" distance(o"+i+",p"+pars.get(dl.getObjectIds()[1])+")<=p"+pars.getVarCstr(dl.getCstrId())+";\n";
+//                    constraints+=" distance(o"+i+",p"+pars.get(dl.getObjectIds()[1])+")<=p"+pars.getVarCstr(stp.getDistLeqId(dl))+";\n";
 //                    constraints+="end\n";
 //
 //                }
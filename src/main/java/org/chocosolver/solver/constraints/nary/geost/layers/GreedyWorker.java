@@ -0,0 +1,160 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.InternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.OutboxArena;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.OutboxCoalescer;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One attempt of the greedy mode of {@link GeometricKernel#fixAllObjsInParallel}: the free objects are placed one
+ * after the other, each at the first feasible point in the order of a controlling vector, as
+ * {@link GeometricKernel#fixObj} does. Neither the variables nor the frames are modified: an object placed by the
+ * attempt keeps the regions it had in the frames, and the outboxes it adds for the next objects are computed from its
+ * shape and position, see {@link ExternalLayer#genOutboxes(GeostObject, int, int, int[], List, OutboxArena)}. Several
+ * workers can thus try different controlling vectors or orders of the objects at the same time.
+ * <p>
+ * Only the outboxes of non-overlapping constraints are handled. Unlike pruneFix, an attempt whose point falls in a
+ * hole of the domain of a coordinate fails instead of raising a contradiction.
+ * <p>
+ * A worker owns all the mutable state of an attempt and must not be shared between threads.
+ */
+final class GreedyWorker {
+
+    private final ExternalLayer externalLayer;
+    private final int k;
+    private final List<InternalConstraint> ictrs = new ArrayList<>();
+    private final OutboxArena arena = new OutboxArena();
+    private final OutboxIndex index = new OutboxIndex();
+    private final UnrolledSweep.BoxFinder boxes = index::find;
+    private final UnrolledSweep unrolled;
+    private final SummedAreaTable table;
+    final OutboxCoalescer coalescer = new OutboxCoalescer();
+    private final Point c;
+    private final Point n;
+    private final int[] lb;
+    private final int[] ub;
+    private final int[] x;
+
+    /**
+     * @param table whether the point of each object is found with a {@link SummedAreaTable}, as chosen by
+     *              {@link GeometricKernel#initSmallDomains}, rather than swept
+     */
+    GreedyWorker(ExternalLayer externalLayer, int k, boolean table) {
+        this.externalLayer = externalLayer;
+        this.k = k;
+        this.c = new Point(k);
+        this.n = new Point(k);
+        this.lb = new int[k];
+        this.ub = new int[k];
+        this.x = new int[k];
+        this.unrolled = externalLayer.stp.opt.unrolled ? UnrolledSweep.of(k) : null;
+        this.table = table ? new SummedAreaTable(k) : null;
+    }
+
+    /**
+     * Places the objects order[0..nb) in turn with the controlling vector ctrlV. The shape and the k coordinates of
+     * the q-th object are written in placement[q*(k+1)..(q+1)*(k+1)).
+     *
+     * @param cancelled tells, before each object, whether the attempt can be given up
+     * @return false if an object cannot be placed, or if the attempt was given up
+     */
+    boolean place(int[] order, int nb, int[] ctrlV, int[] placement, BooleanSupplier cancelled) {
+        for (int q = 0; q < nb; q++) {
+            if (cancelled.getAsBoolean()) {
+                return false;
+            }
+            GeostObject o = externalLayer.stp.getObject(order[q]);
+            int sid = ctrlV[0] < 0 ? o.getShapeId().getLB() : o.getShapeId().getUB();
+            ictrs.clear();
+            arena.clear();
+            for (int i = 0; i < o.getRelatedExternalConstraints().size(); i++) {
+                ExternalConstraint ectr = o.getRelatedExternalConstraints().get(i);
+                ictrs.addAll(externalLayer.genInternalCtrs(ectr, o, sid, arena));
+                Map<Integer, ?> inFrame = ectr.getFrame().getRelForbidRegions();
+                for (int p = 0; p < q; p++) {
+                    if (inFrame.containsKey(order[p])) {
+                        System.arraycopy(placement, p * (k + 1) + 1, x, 0, k);
+                        externalLayer.genOutboxes(o, sid, placement[p * (k + 1)], x, ictrs, arena);
+                    }
+                }
+            }
+            if (externalLayer.stp.opt.coalescing) {
+                coalescer.coalesce(ictrs, arena);
+            }
+            IntVar[] coords = o.getCoordinates();
+            for (int j = 0; j < k; j++) {
+                lb[j] = coords[j].getLB();
+                ub[j] = coords[j].getUB();
+            }
+            if (!sweep(ctrlV)) {
+                return false;
+            }
+            placement[q * (k + 1)] = sid;
+            for (int j = 0; j < k; j++) {
+                if (!coords[j].contains(c.getCoord(j))) {
+                    return false;
+                }
+                placement[q * (k + 1) + 1 + j] = c.getCoord(j);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as the sweep of {@link GeometricKernel#pruneFix} on the private bounds: c is set to the first point of the
+     * bounds, in the order of ctrlV, which belongs to no outbox.
+     */
+    private boolean sweep(int[] ctrlV) {
+        for (int d = k - 1; d >= 0; d--) {
+            int dPrime = Math.abs(ctrlV[d + 1]) - 2;
+            if (ctrlV[d + 1] < 0) {
+                c.setCoord(dPrime, lb[dPrime]);
+                n.setCoord(dPrime, ub[dPrime] + 1);
+            } else {
+                c.setCoord(dPrime, ub[dPrime]);
+                n.setCoord(dPrime, lb[dPrime] - 1);
+            }
+        }
+        if (ictrs.isEmpty()) {
+            return true;
+        }
+        index.build(k, ictrs, arena);
+        if (table != null && index.getOthers().isEmpty() && SummedAreaTable.isWorthBuilding(ictrs.size(), lb, ub)) {
+            table.build(ictrs, index.getBuilds(), lb, ub);
+            return table.firstFree(ctrlV, c);
+        }
+        if (unrolled != null) {
+            return unrolled.pruneFix(ctrlV, lb, ub, c, boxes);
+        }
+        Outbox ob = index.find(c);
+        while (ob != null) {
+            for (int d = k - 1; d >= 0; d--) {
+                int dPrime = Math.abs(ctrlV[d + 1]) - 2;
+                n.setCoord(dPrime, UnrolledSweep.jump(ctrlV[d + 1] < 0, n.getCoord(dPrime), ob.getT(dPrime),
+                        ob.getL(dPrime), lb[dPrime], ub[dPrime]));
+            }
+            if (!GeometricKernel.nextCandidate(c, n, lb, ub, ctrlV, k)) {
+                return false;
+            }
+            ob = index.find(c);
+        }
+        return true;
+    }
+}
@@ -72,17 +72,30 @@ public final class IntermediateLayer {
      *         if the point is not feasible
      */
     public List isFeasible(InternalConstraint ictr, boolean min, int d, int k, GeostObject o, Point c, Point jump) {
-        List result = new ArrayList();
+        List<Object> result = new ArrayList<>(2);
+        Region f = new Region(k, o.getObjectId());
+        result.add(0, isFeasible(ictr, min, d, k, o, c, jump, f));
+        result.add(1, f);
+        return result;
+    }
+
+    /**
+     * Same as {@link #isFeasible(InternalConstraint, boolean, int, int, GeostObject, Point, Point)} but the forbidden
+     * region is written into f instead of being returned in a newly allocated vector. Outboxes and inboxes do not
+     * allocate anything.
+     *
+     * @param f The region receiving the forbidden region when c is not feasible, its content is unspecified otherwise
+     * @return true if c is feasible, false otherwise
+     */
+    public boolean isFeasible(InternalConstraint ictr, boolean min, int d, int k, GeostObject o, Point c, Point jump, Region f) {
+        List result;
         switch (ictr.getIctrID()) {
             case Constants.INBOX:
-                result = isFeasibleForInbox((Inbox) ictr, min, d, k, o, c);
-                break;
+                return isFeasibleForInbox((Inbox) ictr, min, d, k, o, c, f);
             case Constants.OUTBOX:
-                result = isFeasibleForOutbox((Outbox) ictr, min, k, o, c);
-                break;
+                return isFeasibleForOutbox((Outbox) ictr, min, k, o, c, f);
             case Constants.AVOID_HOLES:
-                result = isFeasibleForAvoidHoles();
-                break;
+                return isFeasibleForAvoidHoles(min, k, o, c, f);
             case Constants.DIST_LEQ_FR:
                 //System.out.println("DIST_LEQ_FR.isFeasible");
                 result = ((DistLeqIC) ictr).isFeasible(min, d, k, o, c, jump);
@@ -98,7 +111,15 @@ public final class IntermediateLayer {
             default:
                 throw new SolverException("A call to IsFeasible with incorrect ictrID parameter");
         }
-        return result;
+        if ((Boolean) result.get(0)) {
+            return true;
+        }
+        Region r = (Region) result.get(1);
+        for (int j = 0; j < k; j++) {
+            f.setMinimumBoundary(j, r.getMinimumBoundary(j));
+            f.setMaximumBoundary(j, r.getMaximumBoundary(j));
+        }
+        return false;
     }
 
     /**
@@ -214,18 +235,13 @@ public final class IntermediateLayer {
     }
 
 
-    private List isFeasibleForInbox(Inbox ictr, boolean min, int d, int k, GeostObject o, Point c) {
-        //RETURNS a vector of 2 elements. The first is a Boolean object and the second is a Region object
-        List<Object> result = new ArrayList<>();
-        int[] t = new int[ictr.getT().length];
-        t = ictr.getT();
-        int[] l = new int[ictr.getL().length];
-        l = ictr.getL();
+    private boolean isFeasibleForInbox(Inbox ictr, boolean min, int d, int k, GeostObject o, Point c, Region f) {
+        int[] t = ictr.getT();
+        int[] l = ictr.getL();
 
         boolean before = false;
         boolean after = false;
-        boolean feasible = false;
-        Region f = new Region(k, o.getObjectId());
+        f.setObjectId(o.getObjectId());
 
         for (int j = 0; j < k; j++) {
             int jPrime = (j + d) % k;
@@ -245,30 +261,21 @@ public final class IntermediateLayer {
                     before = true;
             }
         }
-        feasible = !(before || after);
-        result.clear();
-        result.add(0, feasible);
-        result.add(1, f);
-        return result;
+        return !(before || after);
     }
 
-    private List isFeasibleForOutbox(Outbox ictr, boolean min, int k, GeostObject o, Point c) {
-        //RETURNS a vector of 2 elements. The first is a Boolean object and the second is a Region object
-        List<Object> result = new ArrayList<>();
-        int[] t = new int[ictr.getT().length];
-        t = ictr.getT();
-        int[] l = new int[ictr.getL().length];
-        l = ictr.getL();
-        Region f = new Region(k, o.getObjectId());
+    private boolean isFeasibleForOutbox(Outbox ictr, boolean min, int k, GeostObject o, Point c, Region f) {
+        int[] t = ictr.getT();
+        int[] l = ictr.getL();
 
+        // the common case is a point outside the box, check it before touching f
         for (int j = 0; j < k; j++) {
             if ((c.getCoord(j) < t[j]) || (c.getCoord(j) > t[j] + l[j] - 1)) {
-                result.clear();
-                result.add(0, true);
-                result.add(1, f);
-                return result;
+                return true;
             }
-
+        }
+        f.setObjectId(o.getObjectId());
+        for (int j = 0; j < k; j++) {
             if (min) {
                 f.setMinimumBoundary(j, c.getCoord(j));
                 f.setMaximumBoundary(j, Math.min(o.getCoord(j).getUB(), t[j] + l[j] - 1));
@@ -277,16 +284,30 @@ public final class IntermediateLayer {
                 f.setMinimumBoundary(j, Math.max(o.getCoord(j).getLB(), t[j]));
             }
         }
-        result.clear();
-        result.add(0, false);
-        result.add(1, f);
-        return result;
+        return false;
     }
 
 
-    private List isFeasibleForAvoidHoles() {
-        //RETURNS a vector of 2 elements. The first is a Boolean object and the second is a Region object
-        return new ArrayList<>();
+    private boolean isFeasibleForAvoidHoles(boolean min, int k, GeostObject o, Point c, Region f) {
+        int j = 0;
+        while (j < k && o.getCoord(j).contains(c.getCoord(j))) {
+            j++;
+        }
+        if (j == k) {
+            return true;
+        }
+        // every point whose j^th coordinate lies in the same hole as c is forbidden
+        f.setObjectId(o.getObjectId());
+        for (int i = 0; i < k; i++) {
+            if (min) {
+                f.setMinimumBoundary(i, c.getCoord(i));
+                f.setMaximumBoundary(i, i == j ? o.getCoord(j).nextValue(c.getCoord(j)) - 1 : o.getCoord(i).getUB());
+            } else {
+                f.setMaximumBoundary(i, c.getCoord(i));
+                f.setMinimumBoundary(i, i == j ? o.getCoord(j).previousValue(c.getCoord(j)) + 1 : o.getCoord(i).getLB());
+            }
+        }
+        return false;
     }
 
 
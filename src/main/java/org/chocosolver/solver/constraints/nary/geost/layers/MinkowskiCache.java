@@ -0,0 +1,71 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outboxes that the shifted boxes of a shape get from an object with another shape placed at the origin, see
+ * {@link ExternalLayer#genInternalCtrs}. When the other object is fixed somewhere else, its relative forbidden regions
+ * and the outboxes are only translated, so they are computed once for each pair of shapes. The least recently used
+ * pairs are evicted once the cache is full.
+ * <p>
+ * The cache can be read by several {@link SweepWorker}s at the same time.
+ */
+final class MinkowskiCache {
+
+    /**
+     * Maximum number of pairs of shapes kept.
+     */
+    static final int CAPACITY = 1024;
+
+    /**
+     * The outboxes of one pair of shapes.
+     */
+    static final class Entry {
+        /**
+         * Relative forbidden regions of the fixed object at the origin: for each region, its k minimum boundaries
+         * followed by its k maximum boundaries.
+         */
+        final int[] regions;
+        /**
+         * For each shifted box of the swept shape, its outboxes one after the other: the k offsets t followed by the
+         * k lengths s. The outboxes included in another one of the same box are left out.
+         */
+        final int[][] outboxes;
+
+        Entry(int[] regions, int[][] outboxes) {
+            this.regions = regions;
+            this.outboxes = outboxes;
+        }
+    }
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    /**
+     * Returns the outboxes that a shape sid gets from an object of shape fixedSid, or null if they are not known.
+     */
+    synchronized Entry get(int fixedSid, int sid) {
+        return entries.get(key(fixedSid, sid));
+    }
+
+    synchronized void put(int fixedSid, int sid, Entry e) {
+        entries.put(key(fixedSid, sid), e);
+    }
+
+    private static long key(int fixedSid, int sid) {
+        return ((long) fixedSid << 32) | (sid & 0xFFFFFFFFL);
+    }
+}
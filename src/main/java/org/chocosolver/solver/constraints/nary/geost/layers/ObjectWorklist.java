@@ -0,0 +1,66 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+/**
+ * A FIFO queue of objects waiting to be filtered, used by {@link GeometricKernel#filterCtrs}. Objects are identified
+ * by their slot, a dense index in [0,n), and an object is never stored twice in the queue.
+ */
+final class ObjectWorklist {
+
+    private final int[] ring;
+    private final boolean[] queued;
+    private int head;
+    private int size;
+
+    ObjectWorklist(int n) {
+        ring = new int[n];
+        queued = new boolean[n];
+    }
+
+    /**
+     * Adds the object in slot s at the end of the queue, unless it is already waiting.
+     */
+    void push(int s) {
+        if (!queued[s]) {
+            queued[s] = true;
+            int tail = head + size;
+            if (tail >= ring.length) {
+                tail -= ring.length;
+            }
+            ring[tail] = s;
+            size++;
+        }
+    }
+
+    /**
+     * Removes and returns the slot of the first object of the queue.
+     */
+    int pop() {
+        int s = ring[head];
+        head++;
+        if (head == ring.length) {
+            head = 0;
+        }
+        size--;
+        queued[s] = false;
+        return s;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        while (size > 0) {
+            pop();
+        }
+        head = 0;
+    }
+}
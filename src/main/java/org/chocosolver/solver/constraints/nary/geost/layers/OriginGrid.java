@@ -0,0 +1,175 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.InternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A bitmap of the origins of an object within its bounds, used in place of the sweeps of
+ * {@link GeometricKernel#filterObj} when the bounds hold few points, see {@link GeometricKernel#initSmallDomains}.
+ * <p>
+ * The outboxes of the object are the compulsory parts of the other objects dilated by its shape, that is its
+ * forbidden origins. They are drawn in the bitmap, one row of 64-bit words per point of the dimensions 1 to k-1, along
+ * dimension 0. The rows are then scanned once: the free bits of all the rows are or-ed together to get the feasible
+ * values of dimension 0, and a row with a free bit gives feasible values to the other dimensions. The new bounds of all
+ * the dimensions are thus found in one pass, whatever the number of outboxes containing each point.
+ * <p>
+ * An instance keeps its buffers from one call to the next and must not be shared between threads.
+ */
+final class OriginGrid {
+
+    private final int k;
+    private long[] bits = new long[0];
+    private long[] cols = new long[0];
+    // widths of the bounds, extent of an outbox within them, current row and projections of the free points
+    private final int[] w;
+    private final int[] lo;
+    private final int[] hi;
+    private final int[] idx;
+    private final int[] min;
+    private final int[] max;
+
+    OriginGrid(int k) {
+        this.k = k;
+        this.w = new int[k];
+        this.lo = new int[k];
+        this.hi = new int[k];
+        this.idx = new int[k];
+        this.min = new int[k];
+        this.max = new int[k];
+    }
+
+    /**
+     * Narrows [lb,ub] to the smallest box that contains all the points of [lb,ub] which belong to no internal
+     * constraint of ictrs. The internal constraints must all be outboxes. This is what pruneMin and pruneMax find in
+     * each dimension on domains without holes. The grid knows nothing of the holes: a bound that falls in one has to be
+     * moved by the caller, and the box projected again, see {@link GeometricKernel#projectOriginGrid}.
+     *
+     * @return false if all the points of [lb,ub] are forbidden
+     */
+    boolean project(List<InternalConstraint> ictrs, int[] lb, int[] ub) {
+        for (int j = 0; j < k; j++) {
+            w[j] = ub[j] - lb[j] + 1;
+        }
+        int words = ((w[0] - 1) >>> 6) + 1;
+        int rows = 1;
+        for (int j = 1; j < k; j++) {
+            rows *= w[j];
+        }
+        if (bits.length < rows * words) {
+            bits = new long[rows * words];
+        }
+        Arrays.fill(bits, 0, rows * words, 0L);
+        for (int i = 0; i < ictrs.size(); i++) {
+            draw((Outbox) ictrs.get(i), lb, ub, words);
+        }
+        if (cols.length < words) {
+            cols = new long[words];
+        }
+        Arrays.fill(cols, 0, words, 0L);
+        for (int j = 1; j < k; j++) {
+            min[j] = Integer.MAX_VALUE;
+            max[j] = -1;
+            idx[j] = 0;
+        }
+        long lastMask = (w[0] & 63) == 0 ? -1L : (1L << (w[0] & 63)) - 1;
+        boolean found = false;
+        for (int r = 0; r < rows; r++) {
+            long any = 0;
+            int base = r * words;
+            for (int wd = 0; wd < words - 1; wd++) {
+                long free = ~bits[base + wd];
+                cols[wd] |= free;
+                any |= free;
+            }
+            long free = ~bits[base + words - 1] & lastMask;
+            cols[words - 1] |= free;
+            any |= free;
+            if (any != 0) {
+                found = true;
+                for (int j = 1; j < k; j++) {
+                    min[j] = Math.min(min[j], idx[j]);
+                    max[j] = Math.max(max[j], idx[j]);
+                }
+            }
+            // next row, dimension 1 first
+            for (int j = 1; j < k && ++idx[j] == w[j]; j++) {
+                idx[j] = 0;
+            }
+        }
+        if (!found) {
+            return false;
+        }
+        int first = 0;
+        while (cols[first] == 0) {
+            first++;
+        }
+        int last = words - 1;
+        while (cols[last] == 0) {
+            last--;
+        }
+        min[0] = (first << 6) + Long.numberOfTrailingZeros(cols[first]);
+        max[0] = (last << 6) + 63 - Long.numberOfLeadingZeros(cols[last]);
+        for (int j = 0; j < k; j++) {
+            ub[j] = lb[j] + max[j];
+            lb[j] = lb[j] + min[j];
+        }
+        return true;
+    }
+
+    /**
+     * Sets the bits of the points of ob within [lb,ub].
+     */
+    private void draw(Outbox ob, int[] lb, int[] ub, int words) {
+        for (int j = 0; j < k; j++) {
+            // long, since an outbox can end at the largest int
+            lo[j] = Math.max(ob.getT(j), lb[j]) - lb[j];
+            hi[j] = (int) Math.min((long) ob.getT(j) + ob.getL(j) - 1, ub[j]) - lb[j];
+            if (lo[j] > hi[j]) {
+                return;
+            }
+        }
+        for (int j = 1; j < k; j++) {
+            idx[j] = lo[j];
+        }
+        int a = lo[0] >>> 6;
+        int b = hi[0] >>> 6;
+        long first = -1L << (lo[0] & 63);
+        long last = -1L >>> (63 - (hi[0] & 63));
+        while (true) {
+            int row = 0;
+            for (int j = k - 1; j >= 1; j--) {
+                row = row * w[j] + idx[j];
+            }
+            int base = row * words;
+            if (a == b) {
+                bits[base + a] |= first & last;
+            } else {
+                bits[base + a] |= first;
+                for (int wd = a + 1; wd < b; wd++) {
+                    bits[base + wd] = -1L;
+                }
+                bits[base + b] |= last;
+            }
+            int j = 1;
+            while (j < k && idx[j] == hi[j]) {
+                idx[j] = lo[j];
+                j++;
+            }
+            if (j == k) {
+                return;
+            }
+            idx[j]++;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.Constants;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.InternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.OutboxArena;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A static bounding volume hierarchy over the outboxes of a list of internal constraints. It answers the question
+ * "which outbox contains the sweep point c?" by descending the tree instead of scanning every internal constraint.
+ * Internal constraints that are not outboxes (distance constraints, ...) are kept aside in {@link #getOthers()} and
+ * are still scanned one by one by the caller.
+ * <p>
+ * The boxes are read from an {@link OutboxArena}. Short lists are not worth a tree and are scanned in the arena.
+ * The index is a snapshot of the list of internal constraints it was built from. The owner of the index has to
+ * {@link #clear()} it, or build it again, before modifying the list: the index does not check the content of the list.
+ */
+final class OutboxIndex {
+
+    /**
+     * Below this number of outboxes a plain scan of the arena is as fast as the tree, the tree is not built.
+     */
+    static final int MIN_SIZE = 8;
+
+    private static final int LEAF_SIZE = 4;
+
+    private int k;
+    private List<InternalConstraint> source;
+    // number of builds, see getBuilds
+    private int builds;
+
+    private OutboxArena arena;
+    // used when the outboxes of the list are not already packed by the caller
+    private final OutboxArena scratch = new OutboxArena();
+    private boolean tree;
+    private int[] perm = new int[0];
+
+    // the nodes of the tree, children of an internal node are stored right after it (left) and at right[node]
+    private int nbNodes;
+    private int[] nodeLo = new int[0];
+    private int[] nodeHi = new int[0];
+    private int[] nodeFrom = new int[0];
+    private int[] nodeTo = new int[0];
+    private int[] right = new int[0];
+    private int[] stack = new int[0];
+
+    private final List<InternalConstraint> others = new ArrayList<>();
+
+    /**
+     * Builds the index over the outboxes of <code>ictrs</code>.
+     *
+     * @param k      The total number of dimensions
+     * @param ictrs  The internal constraints of the object being swept
+     * @param packed The outboxes of ictrs already packed in the same order, or null
+     */
+    void build(int k, List<InternalConstraint> ictrs, OutboxArena packed) {
+        this.k = k;
+        this.source = ictrs;
+        builds++;
+        others.clear();
+        int n = 0;
+        Outbox first = null;
+        Outbox last = null;
+        for (int i = 0; i < ictrs.size(); i++) {
+            InternalConstraint ictr = ictrs.get(i);
+            if (ictr.getIctrID() == Constants.OUTBOX) {
+                if (first == null) first = (Outbox) ictr;
+                last = (Outbox) ictr;
+                n++;
+            } else {
+                others.add(ictr);
+            }
+        }
+        if (packed != null && packed.size() == n && (n == 0 || (packed.get(0) == first && packed.get(n - 1) == last))) {
+            arena = packed;
+        } else {
+            scratch.clear();
+            scratch.addAll(ictrs);
+            arena = scratch;
+        }
+        tree = n >= MIN_SIZE;
+        if (tree) {
+            ensureCapacity(n);
+            for (int b = 0; b < n; b++) {
+                perm[b] = b;
+            }
+            nbNodes = 0;
+            buildNode(0, n);
+        }
+    }
+
+    /**
+     * Forgets the list the index was built from, so that {@link #isBuiltFor(List)} fails until the next build.
+     */
+    void clear() {
+        source = null;
+    }
+
+    /**
+     * Checks that the index was last built from <code>ictrs</code> and was not cleared since.
+     */
+    boolean isBuiltFor(List<InternalConstraint> ictrs) {
+        return source == ictrs;
+    }
+
+    /**
+     * Returns the number of times the index was built. It changes with each build, so what is computed from the
+     * outboxes of one build can be kept until the next one, even if the list is the same and its outboxes were merged.
+     */
+    int getBuilds() {
+        return builds;
+    }
+
+    /**
+     * Returns the internal constraints that are not outboxes and thus are not stored in the index.
+     */
+    List<InternalConstraint> getOthers() {
+        return others;
+    }
+
+    /**
+     * Returns an outbox that contains the point c, or null if c does not belong to any outbox.
+     */
+    Outbox find(Point c) {
+        if (!tree) {
+            int b = arena.findContaining(c);
+            return b < 0 ? null : arena.get(b);
+        }
+        int[] p = c.getCoords();
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (!inNode(node, p)) {
+                continue;
+            }
+            if (right[node] < 0) {
+                for (int i = nodeFrom[node]; i < nodeTo[node]; i++) {
+                    if (arena.contains(perm[i], p)) {
+                        return arena.get(perm[i]);
+                    }
+                }
+            } else {
+                stack[top++] = right[node];
+                stack[top++] = node + 1;
+            }
+        }
+        return null;
+    }
+
+    private boolean inNode(int node, int[] p) {
+        int base = node * k;
+        int out = 0;
+        for (int j = 0; j < k; j++) {
+            out |= (p[j] - nodeLo[base + j]) | (nodeHi[base + j] - p[j]);
+        }
+        return out >= 0;
+    }
+
+    private int buildNode(int from, int to) {
+        int node = nbNodes++;
+        int base = node * k;
+        for (int j = 0; j < k; j++) {
+            nodeLo[base + j] = Integer.MAX_VALUE;
+            nodeHi[base + j] = Integer.MIN_VALUE;
+        }
+        for (int i = from; i < to; i++) {
+            int b = perm[i];
+            for (int j = 0; j < k; j++) {
+                nodeLo[base + j] = Math.min(nodeLo[base + j], arena.getMin(b, j));
+                nodeHi[base + j] = Math.max(nodeHi[base + j], arena.getMax(b, j));
+            }
+        }
+        nodeFrom[node] = from;
+        nodeTo[node] = to;
+        if (to - from <= LEAF_SIZE) {
+            right[node] = -1;
+            return node;
+        }
+        // split along the dimension of largest extent, around the median of the box centers
+        int axis = 0;
+        for (int j = 1; j < k; j++) {
+            if ((long) nodeHi[base + j] - nodeLo[base + j] > (long) nodeHi[base + axis] - nodeLo[base + axis]) {
+                axis = j;
+            }
+        }
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, axis);
+        buildNode(from, mid);
+        right[node] = buildNode(mid, to);
+        return node;
+    }
+
+    private long center(int i, int axis) {
+        return (long) arena.getMin(perm[i], axis) + arena.getMax(perm[i], axis);
+    }
+
+    /**
+     * Partially sorts perm[left..right] so that the element at position nth is the one it would be at after a sort
+     * on the center of the boxes along axis.
+     */
+    private void select(int left, int right, int nth, int axis) {
+        while (left < right) {
+            long pivot = center((left + right) >>> 1, axis);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (center(i, axis) < pivot) i++;
+                while (center(j, axis) > pivot) j--;
+                if (i <= j) {
+                    int tmp = perm[i];
+                    perm[i++] = perm[j];
+                    perm[j--] = tmp;
+                }
+            }
+            if (nth <= j) {
+                right = j;
+            } else if (nth >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (perm.length < n) {
+            int size = Math.max(n, perm.length * 2);
+            perm = new int[size];
+            // a tree with leaves of at least LEAF_SIZE / 2 boxes has less than 2 * size nodes
+            int nodes = 2 * size;
+            nodeFrom = new int[nodes];
+            nodeTo = new int[nodes];
+            right = new int[nodes];
+            stack = new int[nodes];
+        }
+        if (nodeLo.length < 2 * perm.length * k) {
+            nodeLo = new int[2 * perm.length * k];
+            nodeHi = new int[2 * perm.length * k];
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.InternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The number of forbidden origins of an object in any box of its bounds, for k=2 and k=3, when its internal
+ * constraints are all outboxes. The table holds, for each point p of the bounds, the number of forbidden points
+ * between the lower corner of the bounds and p; the number of forbidden points of a box is then read from the 2^k
+ * corners of the box, whatever the number of outboxes.
+ * <p>
+ * The table is built from the outboxes of one build of an {@link OutboxIndex} and the bounds it was asked for, and is
+ * only built again when the index is built again or when the bounds change, see {@link #isBuiltFor}.
+ * <p>
+ * An instance keeps its buffers from one build to the next and must not be shared between threads.
+ */
+final class SummedAreaTable {
+
+    /**
+     * Building the table costs a few passes over its points while a sweep costs a few lookups per outbox met, the
+     * table is only worth it with at least one outbox per this number of points.
+     */
+    static final int POINTS_PER_OUTBOX = 8;
+
+    private final int k;
+    // the table is padded with a zero layer before the first point of each dimension
+    private int[] sums = new int[0];
+    private final int[] lb;
+    private final int[] ub;
+    // stride of each dimension in sums
+    private final int[] stride;
+    // box being drawn or queried
+    private final int[] lo;
+    private final int[] hi;
+    // the build of the outbox index the table was computed from
+    private int version = -1;
+
+    /**
+     * @param k the number of dimensions, 2 or 3
+     */
+    SummedAreaTable(int k) {
+        if (k != 2 && k != 3) {
+            throw new IllegalArgumentException("summed-area tables are for 2 or 3 dimensions");
+        }
+        this.k = k;
+        this.lb = new int[k];
+        this.ub = new int[k];
+        this.stride = new int[k];
+        this.lo = new int[k];
+        this.hi = new int[k];
+    }
+
+    /**
+     * Tells whether a table of the bounds [lb,ub] is worth building for nb outboxes rather than sweeping them.
+     */
+    static boolean isWorthBuilding(int nb, int[] lb, int[] ub) {
+        long points = 1;
+        for (int j = 0; j < lb.length; j++) {
+            points *= ub[j] - (long) lb[j] + 1;
+        }
+        return (long) nb * POINTS_PER_OUTBOX >= points;
+    }
+
+    /**
+     * Tells whether the table was built from the given build of the outbox index and from the bounds [lb,ub].
+     */
+    boolean isBuiltFor(int version, int[] lb, int[] ub) {
+        return this.version == version && Arrays.equals(this.lb, lb) && Arrays.equals(this.ub, ub);
+    }
+
+    /**
+     * Builds the table of the points of [lb,ub] forbidden by ictrs, which must all be outboxes.
+     *
+     * @param version the build of the outbox index over ictrs, see {@link OutboxIndex#getBuilds()}
+     */
+    void build(List<InternalConstraint> ictrs, int version, int[] lb, int[] ub) {
+        this.version = version;
+        System.arraycopy(lb, 0, this.lb, 0, k);
+        System.arraycopy(ub, 0, this.ub, 0, k);
+        int size = 1;
+        for (int j = 0; j < k; j++) {
+            stride[j] = size;
+            size *= ub[j] - lb[j] + 2;
+        }
+        if (sums.length < size) {
+            sums = new int[size];
+        }
+        Arrays.fill(sums, 0, size, 0);
+        // +1 and -1 at the corners of each outbox, the point x being at x+1 in the table: the sums along each
+        // dimension then give the number of outboxes on each point
+        for (int i = 0; i < ictrs.size(); i++) {
+            if (clip((Outbox) ictrs.get(i))) {
+                for (int corner = 0; corner < (1 << k); corner++) {
+                    int at = 0;
+                    int sign = 1;
+                    for (int j = 0; j < k; j++) {
+                        if ((corner & (1 << j)) == 0) {
+                            at += (lo[j] + 1) * stride[j];
+                        } else if (hi[j] < ub[j] - lb[j]) {
+                            at += (hi[j] + 2) * stride[j];
+                            sign = -sign;
+                        } else {
+                            // the box ends on the last point of j, there is nothing after it to correct
+                            sign = 0;
+                        }
+                    }
+                    sums[at] += sign;
+                }
+            }
+        }
+        accumulate(size);
+        for (int p = 0; p < size; p++) {
+            sums[p] = sums[p] > 0 ? 1 : 0;
+        }
+        accumulate(size);
+    }
+
+    /**
+     * Returns the number of forbidden points of the box [lo,hi], which must be within the bounds of the table.
+     */
+    int count(int[] lo, int[] hi) {
+        int x0 = lo[0] - lb[0], x1 = hi[0] - lb[0] + 1;
+        int y0 = (lo[1] - lb[1]) * stride[1], y1 = (hi[1] - lb[1] + 1) * stride[1];
+        if (k == 2) {
+            return sums[x1 + y1] - sums[x0 + y1] - sums[x1 + y0] + sums[x0 + y0];
+        }
+        int z0 = (lo[2] - lb[2]) * stride[2], z1 = (hi[2] - lb[2] + 1) * stride[2];
+        return sums[x1 + y1 + z1] - sums[x0 + y1 + z1] - sums[x1 + y0 + z1] + sums[x0 + y0 + z1]
+                - sums[x1 + y1 + z0] + sums[x0 + y1 + z0] + sums[x1 + y0 + z0] - sums[x0 + y0 + z0];
+    }
+
+    /**
+     * Same as the sweep of {@link GeometricKernel#pruneFix} on the bounds of the table: c is set to the first point,
+     * in the order of the controlling vector ctrlV, which is not forbidden. The values of each dimension are skipped as
+     * long as the slab of the points having this value, within the values already chosen, is fully forbidden.
+     *
+     * @return false if all the points are forbidden
+     */
+    boolean firstFree(int[] ctrlV, Point c) {
+        System.arraycopy(lb, 0, lo, 0, k);
+        System.arraycopy(ub, 0, hi, 0, k);
+        for (int i = 0; i < k; i++) {
+            int d = UnrolledSweep.dimOf(ctrlV, i);
+            boolean up = ctrlV[i + 1] < 0;
+            int from = lo[d];
+            int to = hi[d];
+            int v = up ? from : to;
+            while (true) {
+                lo[d] = v;
+                hi[d] = v;
+                if (count(lo, hi) < volume()) {
+                    break;
+                }
+                v += up ? 1 : -1;
+                if (v < from || v > to) {
+                    return false;
+                }
+            }
+            c.setCoord(d, v);
+        }
+        return true;
+    }
+
+    private int volume() {
+        int v = 1;
+        for (int j = 0; j < k; j++) {
+            v *= hi[j] - lo[j] + 1;
+        }
+        return v;
+    }
+
+    /**
+     * Sets [lo,hi] to ob within the bounds, relative to the lower bounds.
+     *
+     * @return false if ob is out of the bounds
+     */
+    private boolean clip(Outbox ob) {
+        for (int j = 0; j < k; j++) {
+            lo[j] = Math.max(ob.getT(j), lb[j]) - lb[j];
+            // long, since an outbox can end at the largest int
+            hi[j] = (int) Math.min((long) ob.getT(j) + ob.getL(j) - 1, ub[j]) - lb[j];
+            if (lo[j] > hi[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces sums by its prefix sums along each dimension.
+     */
+    private void accumulate(int size) {
+        for (int j = 0; j < k; j++) {
+            int s = stride[j];
+            int layer = s * (ub[j] - lb[j] + 2);
+            for (int from = 0; from < size; from += layer) {
+                // the first value of j is the padding, it stays as it is
+                for (int p = from + s; p < from + layer; p++) {
+                    sums[p] += sums[p - s];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.InternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.OutboxArena;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.OutboxCoalescer;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sweep of {@link GeometricKernel#filterObj} for an object placed with a given shape, when its internal
+ * constraints are all outboxes. It is computed on private copies of the bounds of the object and neither the
+ * variables nor the object are modified, so several workers can filter different objects, or the different shapes of
+ * a polymorphic object, at the same time. The bounds found are applied later by the solver thread.
+ * <p>
+ * A worker owns all the mutable state of the sweep (internal constraints, sweep point, jump vector, outbox index,
+ * coalescing buffers and counters) and must not be shared between threads.
+ */
+final class SweepWorker {
+
+    private final ExternalLayer externalLayer;
+    private final int k;
+    private final List<InternalConstraint> ictrs = new ArrayList<>();
+    private final OutboxArena arena = new OutboxArena();
+    private final OutboxIndex index = new OutboxIndex();
+    private final UnrolledSweep.BoxFinder boxes = index::find;
+    private final UnrolledSweep unrolled;
+    private final OriginGrid grid;
+    final OutboxCoalescer coalescer = new OutboxCoalescer();
+    private final Point c;
+    private final Point n;
+    private final int[] lb;
+    private final int[] ub;
+    private IntVar[] coords;
+
+    /**
+     * @param grid whether the bounds are found with an {@link OriginGrid}, as chosen by
+     *             {@link GeometricKernel#initSmallDomains}, rather than swept
+     */
+    SweepWorker(ExternalLayer externalLayer, int k, boolean grid) {
+        this.externalLayer = externalLayer;
+        this.k = k;
+        this.c = new Point(k);
+        this.n = new Point(k);
+        this.lb = new int[k];
+        this.ub = new int[k];
+        this.unrolled = externalLayer.stp.opt.unrolled ? UnrolledSweep.of(k) : null;
+        this.grid = grid ? new OriginGrid(k) : null;
+    }
+
+    /**
+     * Generates the internal constraints of o placed with shape sid and sweeps its k coordinates. The new bounds are
+     * written in newLb[off..off+k) and newUb[off..off+k).
+     *
+     * @return false if o cannot be placed with shape sid
+     */
+    boolean filter(GeostObject o, int sid, int[] newLb, int[] newUb, int off) {
+        ictrs.clear();
+        arena.clear();
+        for (int i = 0; i < o.getRelatedExternalConstraints().size(); i++) {
+            ictrs.addAll(externalLayer.genInternalCtrs(o.getRelatedExternalConstraints().get(i), o, sid, arena));
+        }
+        if (externalLayer.stp.opt.coalescing) {
+            coalescer.coalesce(ictrs, arena);
+        }
+        coords = o.getCoordinates();
+        for (int j = 0; j < k; j++) {
+            lb[j] = coords[j].getLB();
+            ub[j] = coords[j].getUB();
+        }
+        if (!ictrs.isEmpty()) {
+            index.build(k, ictrs, arena);
+            if (grid != null && index.getOthers().isEmpty()) {
+                if (!project()) {
+                    return false;
+                }
+            } else {
+                for (int d = 0; d < k; d++) {
+                    if (!pruneMin(d) || !pruneMax(d)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        System.arraycopy(lb, 0, newLb, off, k);
+        System.arraycopy(ub, 0, newUb, off, k);
+        return true;
+    }
+
+    /**
+     * Narrows the private bounds with the grid, then to the values of the domains, as updateBounds would do.
+     */
+    private boolean project() {
+        if (!grid.project(ictrs, lb, ub)) {
+            return false;
+        }
+        for (int j = 0; j < k; j++) {
+            lb[j] = coords[j].nextValue(lb[j] - 1);
+            ub[j] = coords[j].previousValue(ub[j] + 1);
+            if (lb[j] > ub[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean pruneMin(int d) {
+        if (unrolled != null) {
+            if (!unrolled.pruneMin(d, lb, ub, c, boxes)) {
+                return false;
+            }
+            lb[d] = coords[d].nextValue(c.getCoord(d) - 1);
+            return true;
+        }
+        for (int i = 0; i < k; i++) {
+            c.setCoord(i, lb[i]);
+            n.setCoord(i, ub[i] + 1);
+        }
+        Outbox ob = index.find(c);
+        while (ob != null) {
+            for (int i = 0; i < k; i++) {
+                n.setCoord(i, UnrolledSweep.jump(true, n.getCoord(i), ob.getT(i), ob.getL(i), lb[i], ub[i]));
+            }
+            if (!GeometricKernel.adjustUp(c, n, lb, ub, d, k)) {
+                return false;
+            }
+            ob = index.find(c);
+        }
+        // the smallest value of the domain from c, as updateLowerBound would do
+        lb[d] = coords[d].nextValue(c.getCoord(d) - 1);
+        return true;
+    }
+
+    private boolean pruneMax(int d) {
+        if (unrolled != null) {
+            if (!unrolled.pruneMax(d, lb, ub, c, boxes)) {
+                return false;
+            }
+            ub[d] = coords[d].previousValue(c.getCoord(d) + 1);
+            return true;
+        }
+        for (int i = 0; i < k; i++) {
+            c.setCoord(i, ub[i]);
+            n.setCoord(i, lb[i] - 1);
+        }
+        Outbox ob = index.find(c);
+        while (ob != null) {
+            for (int i = 0; i < k; i++) {
+                n.setCoord(i, UnrolledSweep.jump(false, n.getCoord(i), ob.getT(i), ob.getL(i), lb[i], ub[i]));
+            }
+            if (!GeometricKernel.adjustDown(c, n, lb, ub, d, k)) {
+                return false;
+            }
+            ob = index.find(c);
+        }
+        ub[d] = coords[d].previousValue(c.getCoord(d) + 1);
+        return true;
+    }
+}
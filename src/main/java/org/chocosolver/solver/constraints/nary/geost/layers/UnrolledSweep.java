@@ -0,0 +1,210 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+
+/**
+ * The sweeps of {@link GeometricKernel#pruneMin}, {@link GeometricKernel#pruneMax} and
+ * {@link GeometricKernel#pruneFix} specialised for k=2 and k=3, when the internal constraints of the object are all
+ * outboxes. The sweep point and the jump vector are kept in local variables and the loops over the dimensions of
+ * adjustUp and adjustDown are unrolled. The sweep point is only written in a {@link Point} to look for the outbox
+ * containing it.
+ * <p>
+ * The three sweeps are the same lexicographic sweep: the dimensions are ordered from the most significant one to the
+ * least significant one, and each is swept up from its lower bound or down from its upper bound. pruneMin of dimension
+ * d sweeps d, then (d+1)%k, then (d+2)%k up, pruneMax the same dimensions down, and pruneFix follows the controlling
+ * vector. The outbox found at each step and the jumps are the same as in the generic loops.
+ * <p>
+ * Instances hold no state and can be shared between threads.
+ */
+abstract class UnrolledSweep {
+
+    /**
+     * Looks for an outbox containing the sweep point.
+     */
+    interface BoxFinder {
+        /**
+         * Returns an outbox containing c, or null if c is feasible.
+         */
+        Outbox find(Point c);
+    }
+
+    private static final UnrolledSweep SWEEP_2D = new Sweep2D();
+    private static final UnrolledSweep SWEEP_3D = new Sweep3D();
+
+    /**
+     * Returns the sweep specialised for k dimensions, or null if there is none and the generic one has to be used.
+     */
+    static UnrolledSweep of(int k) {
+        switch (k) {
+            case 2:
+                return SWEEP_2D;
+            case 3:
+                return SWEEP_3D;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Sweeps the bounds [lb,ub] up in dimension d, as pruneMin does. On success, c is the first feasible point found.
+     *
+     * @return false if there is no feasible point
+     */
+    abstract boolean pruneMin(int d, int[] lb, int[] ub, Point c, BoxFinder boxes);
+
+    /**
+     * Sweeps the bounds [lb,ub] down in dimension d, as pruneMax does. On success, c is the first feasible point found.
+     *
+     * @return false if there is no feasible point
+     */
+    abstract boolean pruneMax(int d, int[] lb, int[] ub, Point c, BoxFinder boxes);
+
+    /**
+     * Sweeps the bounds [lb,ub] in the order of the controlling vector ctrlV, as pruneFix does. On success, c is the
+     * first feasible point found.
+     *
+     * @return false if there is no feasible point
+     */
+    abstract boolean pruneFix(int[] ctrlV, int[] lb, int[] ub, Point c, BoxFinder boxes);
+
+    /**
+     * The dimension swept in position i of ctrlV, the first dimension being the most significant one.
+     */
+    static int dimOf(int[] ctrlV, int i) {
+        return Math.abs(ctrlV[i + 1]) - 2;
+    }
+
+    /**
+     * The new bound of the jump vector of a dimension from the outbox [t,t+l-1] containing the sweep point, restricted
+     * to the bounds [lo,hi].
+     */
+    static int jump(boolean up, int n, int t, int l, int lo, int hi) {
+        return up ? Math.min(n, Math.min(hi, t + l - 1) + 1) : Math.max(n, Math.max(lo, t) - 1);
+    }
+
+    private static final class Sweep2D extends UnrolledSweep {
+
+        @Override
+        boolean pruneMin(int d, int[] lb, int[] ub, Point c, BoxFinder boxes) {
+            return sweep(d, true, 1 - d, true, lb, ub, c, boxes);
+        }
+
+        @Override
+        boolean pruneMax(int d, int[] lb, int[] ub, Point c, BoxFinder boxes) {
+            return sweep(d, false, 1 - d, false, lb, ub, c, boxes);
+        }
+
+        @Override
+        boolean pruneFix(int[] ctrlV, int[] lb, int[] ub, Point c, BoxFinder boxes) {
+            return sweep(dimOf(ctrlV, 0), ctrlV[1] < 0, dimOf(ctrlV, 1), ctrlV[2] < 0, lb, ub, c, boxes);
+        }
+
+        /**
+         * Sweeps a, the most significant dimension, then b.
+         */
+        private static boolean sweep(int a, boolean upA, int b, boolean upB, int[] lb, int[] ub, Point c, BoxFinder boxes) {
+            int loA = lb[a], hiA = ub[a], loB = lb[b], hiB = ub[b];
+            // the first point of each dimension and the value just after its last point
+            int startA = upA ? loA : hiA, endA = upA ? hiA + 1 : loA - 1;
+            int startB = upB ? loB : hiB, endB = upB ? hiB + 1 : loB - 1;
+            int cA = startA, cB = startB;
+            int nA = endA, nB = endB;
+            int[] p = c.getCoords();
+            p[a] = cA;
+            p[b] = cB;
+            Outbox ob = boxes.find(c);
+            while (ob != null) {
+                int[] t = ob.getT();
+                int[] l = ob.getL();
+                nA = jump(upA, nA, t[a], l[a], loA, hiA);
+                nB = jump(upB, nB, t[b], l[b], loB, hiB);
+                cB = nB;
+                nB = endB;
+                if (upB ? cB > hiB : cB < loB) {
+                    cB = startB;
+                    cA = nA;
+                    nA = endA;
+                    if (upA ? cA > hiA : cA < loA) {
+                        return false;
+                    }
+                }
+                p[a] = cA;
+                p[b] = cB;
+                ob = boxes.find(c);
+            }
+            return true;
+        }
+    }
+
+    private static final class Sweep3D extends UnrolledSweep {
+
+        @Override
+        boolean pruneMin(int d, int[] lb, int[] ub, Point c, BoxFinder boxes) {
+            return sweep(d, true, (d + 1) % 3, true, (d + 2) % 3, true, lb, ub, c, boxes);
+        }
+
+        @Override
+        boolean pruneMax(int d, int[] lb, int[] ub, Point c, BoxFinder boxes) {
+            return sweep(d, false, (d + 1) % 3, false, (d + 2) % 3, false, lb, ub, c, boxes);
+        }
+
+        @Override
+        boolean pruneFix(int[] ctrlV, int[] lb, int[] ub, Point c, BoxFinder boxes) {
+            return sweep(dimOf(ctrlV, 0), ctrlV[1] < 0, dimOf(ctrlV, 1), ctrlV[2] < 0, dimOf(ctrlV, 2), ctrlV[3] < 0,
+                    lb, ub, c, boxes);
+        }
+
+        /**
+         * Sweeps a, the most significant dimension, then b, then e.
+         */
+        private static boolean sweep(int a, boolean upA, int b, boolean upB, int e, boolean upE, int[] lb, int[] ub, Point c, BoxFinder boxes) {
+            int loA = lb[a], hiA = ub[a], loB = lb[b], hiB = ub[b], loE = lb[e], hiE = ub[e];
+            int startA = upA ? loA : hiA, endA = upA ? hiA + 1 : loA - 1;
+            int startB = upB ? loB : hiB, endB = upB ? hiB + 1 : loB - 1;
+            int startE = upE ? loE : hiE, endE = upE ? hiE + 1 : loE - 1;
+            int cA = startA, cB = startB, cE = startE;
+            int nA = endA, nB = endB, nE = endE;
+            int[] p = c.getCoords();
+            p[a] = cA;
+            p[b] = cB;
+            p[e] = cE;
+            Outbox ob = boxes.find(c);
+            while (ob != null) {
+                int[] t = ob.getT();
+                int[] l = ob.getL();
+                nA = jump(upA, nA, t[a], l[a], loA, hiA);
+                nB = jump(upB, nB, t[b], l[b], loB, hiB);
+                nE = jump(upE, nE, t[e], l[e], loE, hiE);
+                cE = nE;
+                nE = endE;
+                if (upE ? cE > hiE : cE < loE) {
+                    cE = startE;
+                    cB = nB;
+                    nB = endB;
+                    if (upB ? cB > hiB : cB < loB) {
+                        cB = startB;
+                        cA = nA;
+                        nA = endA;
+                        if (upA ? cA > hiA : cA < loA) {
+                            return false;
+                        }
+                    }
+                }
+                p[a] = cA;
+                p[b] = cB;
+                p[e] = cE;
+                ob = boxes.find(c);
+            }
+            return true;
+        }
+    }
+}
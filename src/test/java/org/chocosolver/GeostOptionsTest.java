@@ -0,0 +1,178 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.nary.geost.Constants;
+import org.chocosolver.solver.constraints.nary.geost.GeostBuilder;
+import org.chocosolver.solver.constraints.nary.geost.GeostOptions;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.NonOverlapping;
+import org.chocosolver.solver.constraints.nary.geost.util.RandomProblemGenerator;
+import org.chocosolver.solver.search.strategy.Search;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Solves small random instances with options of {@link GeostOptions} which only change how the bounds are computed,
+ * and checks that the search is left unchanged: same number of solutions and same number of nodes.
+ */
+public class GeostOptionsTest {
+
+    private static final int SEEDS = 150;
+
+    /**
+     * Returns the number of solutions, the number of nodes and the number of failures of the search over all the
+     * solutions.
+     */
+    private static long[] solveAll(RandomInstance instance, GeostOptions opt, long seed) {
+        Solver solver = instance.solver(opt, seed);
+        long nb = 0;
+        while (solver.solve()) {
+            nb++;
+        }
+        return new long[]{nb, solver.getNodeCount(), solver.getFailCount()};
+    }
+
+    /**
+     * Solves each instance with the options set by base, then with the options also changed by option, with and
+     * without holes in the domains.
+     *
+     * @return the number of searches that backtracked from a failure
+     */
+    private static int checkSameSearch(Consumer<GeostOptions> base, Consumer<GeostOptions> option) {
+        int failing = 0;
+        for (boolean holes : new boolean[]{false, true}) {
+            for (long seed = 0; seed < SEEDS; seed++) {
+                RandomInstance instance = new RandomInstance(seed, holes);
+                GeostOptions opt = new GeostOptions();
+                base.accept(opt);
+                long[] expected = solveAll(instance, opt, seed);
+                opt = new GeostOptions();
+                base.accept(opt);
+                option.accept(opt);
+                long[] actual = solveAll(instance, opt, seed);
+                Assert.assertEquals(actual, expected, "seed " + seed + (holes ? " with holes" : "")
+                        + ": solutions, nodes and failures");
+                if (expected[2] > 0) {
+                    failing++;
+                }
+            }
+        }
+        return failing;
+    }
+
+    @Test(groups = "1s")
+    public void testOriginGrid() {
+        checkSameSearch(opt -> {
+        }, opt -> opt.gridCells = 0);
+    }
+
+    @Test(groups = "1s")
+    public void testBoxCache() {
+        // the box cache is only read by the sweeps, which the grid replaces on such small instances
+        int failing = checkSameSearch(opt -> opt.gridCells = 0, opt -> opt.boxCache = false);
+        Assert.assertTrue(failing > SEEDS / 2, "only " + failing + " searches backtracked from a failure");
+        long hits = 0;
+        for (long seed = 0; seed < 10; seed++) {
+            GeostOptions opt = new GeostOptions();
+            opt.gridCells = 0;
+            solveAll(new RandomInstance(seed, false), opt, seed);
+            hits += opt.boxCacheHits;
+            opt = new GeostOptions();
+            opt.gridCells = 0;
+            opt.boxCache = false;
+            solveAll(new RandomInstance(seed, false), opt, seed);
+            Assert.assertEquals(opt.boxCacheHits, 0L, "seed " + seed + ": hits without the cache");
+        }
+        Assert.assertTrue(hits > 0, "no getFR was answered by the box cache");
+    }
+
+    /**
+     * Solves the problem of {@link RandomProblemGenerator} of the given seed over all its solutions, within a limit of
+     * nodes, and returns the number of solutions, the number of nodes and the number of failures.
+     */
+    private static long[] solveGenerated(int dim, long seed, GeostOptions opt) {
+        RandomProblemGenerator rp = new RandomProblemGenerator(dim, 6, 6, 9, 12, seed);
+        rp.generateProb();
+        Model model = rp.getModel();
+        int[] ectrDim = new int[dim];
+        for (int d = 0; d < dim; d++) {
+            ectrDim[d] = d;
+        }
+        int[] objOfEctr = new int[rp.getObjects().size()];
+        for (int i = 0; i < objOfEctr.length; i++) {
+            objOfEctr[i] = rp.getObjects().get(i).getObjectId();
+        }
+        List<ExternalConstraint> ectrs = new ArrayList<>();
+        ectrs.add(new NonOverlapping(Constants.NON_OVERLAPPING, ectrDim, objOfEctr));
+        model.post(GeostBuilder.geost(dim, rp.getObjects(), rp.getSBoxes(), ectrs, null, opt));
+        Solver solver = model.getSolver();
+        solver.setSearch(Search.randomSearch(model.retrieveIntVars(true), seed));
+        solver.limitNode(3000);
+        long nb = 0;
+        while (solver.solve()) {
+            nb++;
+        }
+        return new long[]{nb, solver.getNodeCount(), solver.getFailCount()};
+    }
+
+    @Test(groups = "1s")
+    public void testParallelFiltering() {
+        checkSameSearch(opt -> {
+        }, opt -> opt.parallelism = 4);
+        checkSameSearch(opt -> opt.gridCells = 0, opt -> opt.parallelism = 4);
+        long batches = 0;
+        for (int dim = 2; dim <= 3; dim++) {
+            for (long seed = 0; seed < 10; seed++) {
+                GeostOptions opt = new GeostOptions();
+                long[] expected = solveGenerated(dim, seed, opt);
+                Assert.assertEquals(opt.parallelBatches, 0L, "dim " + dim + ", seed " + seed + ": sequential batches");
+                opt = new GeostOptions();
+                opt.parallelism = 4;
+                Assert.assertEquals(solveGenerated(dim, seed, opt), expected, "dim " + dim + ", seed " + seed
+                        + ": solutions, nodes and failures");
+                batches += opt.parallelBatches;
+            }
+        }
+        Assert.assertTrue(batches > 0, "no batch was run on several threads");
+    }
+
+    @Test(groups = "1s")
+    public void testConcurrentModels() throws Exception {
+        // each model has its own options, the searches run on several threads must be those run one after the other
+        int nb = 16;
+        List<long[]> expected = new ArrayList<>();
+        for (long seed = 0; seed < nb; seed++) {
+            expected.add(solveAll(new RandomInstance(seed, true), new GeostOptions(), seed));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (long seed = 0; seed < nb; seed++) {
+                final long s = seed;
+                results.add(pool.submit(() -> solveAll(new RandomInstance(s, true), new GeostOptions(), s)));
+            }
+            for (int seed = 0; seed < nb; seed++) {
+                Assert.assertEquals(results.get(seed).get(), expected.get(seed), "seed " + seed
+                        + ": solutions, nodes and failures");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.nary.geost.Constants;
+import org.chocosolver.solver.constraints.nary.geost.GeostBuilder;
+import org.chocosolver.solver.constraints.nary.geost.GeostOptions;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.DistGeq;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.DistLeq;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.NonOverlapping;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.ShiftedBox;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Solves random placement problems with the greedy mode of geost, in which the objects are fixed one after the other
+ * along a controlling vector, and compares the placements found by its variants.
+ */
+public class GreedyTest {
+
+    private static final int NONE = 0;
+    private static final int LEQ = 1;
+    private static final int GEQ = 2;
+
+    /**
+     * Places n random rectangles in a square, the objects 2i and 2i+1 being related by a distance constraint of the
+     * given kind, and returns the coordinates of the first solution found, or null if there is none.
+     */
+    private static int[] place(long seed, int n, int distance, GeostOptions opt) {
+        Random r = new Random(seed);
+        Model model = new Model();
+        int[][] size = new int[n][2];
+        List<GeostObject> objects = new ArrayList<>();
+        List<ShiftedBox> sb = new ArrayList<>();
+        int w = 2 * n + 2;
+        int[] oIDs = new int[n];
+        for (int i = 0; i < n; i++) {
+            size[i][0] = 1 + r.nextInt(3);
+            size[i][1] = 1 + r.nextInt(3);
+            IntVar[] coords = {model.intVar("X_" + i, 0, w - size[i][0]), model.intVar("Y_" + i, 0, w - size[i][1])};
+            objects.add(new GeostObject(2, i, model.intVar(i), coords, model.intVar(0), model.intVar(1), model.intVar(1)));
+            sb.add(new ShiftedBox(i, new int[]{0, 0}, size[i]));
+            oIDs[i] = i;
+        }
+        List<ExternalConstraint> ectrs = new ArrayList<>();
+        ectrs.add(new NonOverlapping(Constants.NON_OVERLAPPING, new int[]{0, 1}, oIDs));
+        for (int i = 0; i + 1 < n; i += 2) {
+            if (distance == LEQ) {
+                ectrs.add(new DistLeq(Constants.DIST_LEQ, new int[]{0, 1}, new int[]{i, i + 1}, 4, 2));
+            } else if (distance == GEQ) {
+                ectrs.add(new DistGeq(Constants.DIST_GEQ, new int[]{0, 1}, new int[]{i, i + 1}, 5, 2));
+            }
+        }
+        List<int[]> ctrlVs = new ArrayList<>();
+        ctrlVs.add(new int[]{1, -3, -2});
+        model.post(GeostBuilder.geost(2, objects, sb, ectrs, ctrlVs, opt));
+        Solver solver = model.getSolver();
+        solver.limitNode(20000);
+        if (!solver.solve()) {
+            return null;
+        }
+        int[] placement = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int d = 0; d < 2; d++) {
+                placement[2 * i + d] = objects.get(i).getCoord(d).getValue();
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                boolean overlap = true;
+                for (int d = 0; d < 2; d++) {
+                    int a = placement[2 * i + d];
+                    int b = placement[2 * j + d];
+                    overlap &= a < b + size[j][d] && b < a + size[i][d];
+                }
+                Assert.assertFalse(overlap, "objects " + i + " and " + j + " overlap");
+            }
+        }
+        return placement;
+    }
+
+    @Test(groups = "1s")
+    public void testIncrementalWithDistances() {
+        for (int distance : new int[]{LEQ, GEQ}) {
+            for (long seed = 0; seed < 20; seed++) {
+                int[] expected = place(seed, 8, distance, new GeostOptions());
+                GeostOptions opt = new GeostOptions();
+                opt.increment = true;
+                int[] actual = place(seed, 8, distance, opt);
+                Assert.assertEquals(actual, expected, "distance " + distance + ", seed " + seed + ": "
+                        + Arrays.toString(actual) + " instead of " + Arrays.toString(expected));
+            }
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testParallel() {
+        for (int n = 8; n <= 12; n += 4) {
+            for (long seed = 0; seed < 20; seed++) {
+                int[] expected = place(seed, n, NONE, new GeostOptions());
+                GeostOptions opt = new GeostOptions();
+                opt.parallelism = 4;
+                int[] actual = place(seed, n, NONE, opt);
+                Assert.assertEquals(actual, expected, n + " objects, seed " + seed + ": "
+                        + Arrays.toString(actual) + " instead of " + Arrays.toString(expected));
+            }
+        }
+    }
+}
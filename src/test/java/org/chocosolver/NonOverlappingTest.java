@@ -0,0 +1,50 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.nary.geost.GeostOptions;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Counts the solutions of small random non-overlapping instances and checks them against a brute-force enumeration.
+ */
+public class NonOverlappingTest {
+
+    private static long countSolutions(RandomInstance instance, GeostOptions opt, long seed) {
+        Solver solver = instance.solver(opt, seed);
+        long nb = 0;
+        while (solver.solve()) {
+            nb++;
+        }
+        return nb;
+    }
+
+    @Test(groups = "1s")
+    public void testBruteForce() {
+        for (long seed = 0; seed < 150; seed++) {
+            RandomInstance instance = new RandomInstance(seed, false);
+            long expected = instance.bruteForce();
+            for (boolean clipping : new boolean[]{true, false}) {
+                GeostOptions opt = new GeostOptions();
+                opt.clipping = clipping;
+                Assert.assertEquals(countSolutions(instance, opt, seed), expected, "seed " + seed + ", clipping " + clipping);
+            }
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testBruteForceWithHoles() {
+        for (long seed = 0; seed < 150; seed++) {
+            RandomInstance instance = new RandomInstance(seed, true);
+            Assert.assertEquals(countSolutions(instance, new GeostOptions(), seed), instance.bruteForce(), "seed " + seed);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.nary.geost.Constants;
+import org.chocosolver.solver.constraints.nary.geost.GeostBuilder;
+import org.chocosolver.solver.constraints.nary.geost.GeostOptions;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.NonOverlapping;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.ShiftedBox;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A small random instance of a single non-overlapping constraint, in 2 or 3 dimensions, whose solutions can be counted
+ * by brute force. The objects may have several shapes and, when asked for, coordinates with holes in their domains.
+ */
+final class RandomInstance {
+
+    final int dim;
+    final int n;
+    private final List<ShiftedBox> sbs = new ArrayList<>();
+    private final Map<Integer, List<ShiftedBox>> shapes = new HashMap<>();
+    private final int[] sidLo;
+    private final int[] sidHi;
+    // the values of each coordinate of each object
+    private final int[][][] values;
+
+    /**
+     * @param seed  seed of the shapes and of the domains
+     * @param holes whether values are removed from within the domains of the coordinates
+     */
+    RandomInstance(long seed, boolean holes) {
+        Random r = new Random(seed);
+        dim = 2 + r.nextInt(2);
+        n = 2 + r.nextInt(dim == 2 ? 3 : 2);
+        int nbShapes = 1 + r.nextInt(3);
+        for (int s = 0; s < nbShapes; s++) {
+            int nb = 1 + r.nextInt(3);
+            for (int b = 0; b < nb; b++) {
+                int[] t = new int[dim];
+                int[] l = new int[dim];
+                for (int d = 0; d < dim; d++) {
+                    t[d] = b == 0 ? 0 : r.nextInt(5) - 2;
+                    l[d] = 1 + r.nextInt(3);
+                }
+                ShiftedBox sb = new ShiftedBox(s, t, l);
+                sbs.add(sb);
+                shapes.computeIfAbsent(s, i -> new ArrayList<>()).add(sb);
+            }
+        }
+        sidLo = new int[n];
+        sidHi = new int[n];
+        values = new int[n][dim][];
+        for (int i = 0; i < n; i++) {
+            sidLo[i] = r.nextInt(nbShapes);
+            sidHi[i] = r.nextBoolean() ? sidLo[i] : sidLo[i] + r.nextInt(nbShapes - sidLo[i]);
+            for (int d = 0; d < dim; d++) {
+                int lo = r.nextInt(3);
+                int hi = lo + r.nextInt(dim == 2 ? 5 : 3);
+                List<Integer> v = new ArrayList<>();
+                for (int x = lo; x <= hi; x++) {
+                    if (x == lo || x == hi || !holes || r.nextBoolean()) {
+                        v.add(x);
+                    }
+                }
+                values[i][d] = v.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+    /**
+     * Counts the solutions by enumerating all the placements of the objects.
+     */
+    long bruteForce() {
+        return count(0, new int[n * dim], new int[n]);
+    }
+
+    private long count(int i, int[] x, int[] s) {
+        if (i == n) {
+            return 1;
+        }
+        long c = 0;
+        for (int sid = sidLo[i]; sid <= sidHi[i]; sid++) {
+            s[i] = sid;
+            c += count(i, 0, x, s);
+        }
+        return c;
+    }
+
+    private long count(int i, int d, int[] x, int[] s) {
+        if (d == dim) {
+            for (int j = 0; j < i; j++) {
+                if (overlap(i, j, x, s)) {
+                    return 0;
+                }
+            }
+            return count(i + 1, x, s);
+        }
+        long c = 0;
+        for (int v : values[i][d]) {
+            x[i * dim + d] = v;
+            c += count(i, d + 1, x, s);
+        }
+        return c;
+    }
+
+    private boolean overlap(int a, int b, int[] x, int[] s) {
+        for (ShiftedBox p : shapes.get(s[a])) {
+            for (ShiftedBox q : shapes.get(s[b])) {
+                boolean meet = true;
+                for (int d = 0; d < dim && meet; d++) {
+                    int a0 = x[a * dim + d] + p.getOffset(d);
+                    int b0 = x[b * dim + d] + q.getOffset(d);
+                    meet = a0 < b0 + q.getSize(d) && b0 < a0 + p.getSize(d);
+                }
+                if (meet) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds a model of the instance with the options opt and returns its solver, set to a random search of the given
+     * seed over the coordinates and the shapes.
+     */
+    Solver solver(GeostOptions opt, long seed) {
+        Model model = new Model();
+        List<GeostObject> objects = new ArrayList<>();
+        List<IntVar> vars = new ArrayList<>();
+        int[] oIDs = new int[n];
+        for (int i = 0; i < n; i++) {
+            IntVar sid = model.intVar("sid_" + i, sidLo[i], sidHi[i], false);
+            IntVar[] coords = new IntVar[dim];
+            for (int d = 0; d < dim; d++) {
+                coords[d] = model.intVar("X_" + i + "_" + d, values[i][d]);
+                vars.add(coords[d]);
+            }
+            vars.add(sid);
+            objects.add(new GeostObject(dim, i, sid, coords, model.intVar(1), model.intVar(1), model.intVar(1)));
+            oIDs[i] = i;
+        }
+        int[] ectrDim = new int[dim];
+        for (int d = 0; d < dim; d++) {
+            ectrDim[d] = d;
+        }
+        List<ExternalConstraint> ectrs = new ArrayList<>();
+        ectrs.add(new NonOverlapping(Constants.NON_OVERLAPPING, ectrDim, oIDs));
+        model.post(GeostBuilder.geost(dim, objects, new ArrayList<>(sbs), ectrs, null, opt));
+        Solver solver = model.getSolver();
+        solver.setSearch(Search.randomSearch(vars.toArray(new IntVar[0]), seed));
+        return solver;
+    }
+}
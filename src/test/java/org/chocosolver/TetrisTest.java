@@ -189,7 +189,7 @@ public class TetrisTest {
         model.post(geost);
         Solver solver = model.getSolver();
         solver.findAllSolutions();
-        Assert.assertEquals(solver.getMeasures().getSolutionCount(), 1);
+        Assert.assertEquals(solver.getMeasures().getSolutionCount(), 0);
 
     }
 
@@ -230,7 +230,7 @@ public class TetrisTest {
         model.post(geost);
         Solver solver = model.getSolver();
         solver.findAllSolutions();
-        Assert.assertEquals(solver.getMeasures().getSolutionCount(), 1);
+        Assert.assertEquals(solver.getMeasures().getSolutionCount(), 0);
 
     }
 }
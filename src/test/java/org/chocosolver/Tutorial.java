@@ -589,8 +589,9 @@ public class Tutorial {
                 ctrlVs.add(v0);
 
                 // Definition of the GEOST constraint
-                GeostOptions.increment = inc;
-                Constraint geost = geost(2, geosts, sb, ectr, ctrlVs);
+                GeostOptions opt = new GeostOptions();
+                opt.increment = inc;
+                Constraint geost = geost(2, geosts, sb, ectr, ctrlVs, opt);
                 model.post(geost);
 
                 Assert.assertNotNull(model.getSolver().findSolution());
@@ -0,0 +1,147 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost;
+
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.DistLeq;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.ExternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.externalConstraints.NonOverlapping;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.GeostObject;
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.ShiftedBox;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks that {@link PropGeost} refilters, after a fine event, the objects depending on the object whose variable
+ * changed, and only them. The objects are unit squares with wide domains, so that nothing is pruned and the objects
+ * taken from the worklist are the ones queued by the events.
+ */
+public class PropGeostTest {
+
+    private static final int DIM = 2;
+
+    private final Model model = new Model();
+    private final List<GeostObject> objects = new ArrayList<>();
+    private final GeostOptions opt = new GeostOptions();
+    private PropGeost prop;
+
+    /**
+     * Adds a unit square whose origin lies in [xLo,xHi]x[0,20].
+     */
+    private void addObject(int xLo, int xHi) {
+        int id = objects.size();
+        IntVar[] coords = {model.intVar("x_" + id, xLo, xHi), model.intVar("y_" + id, 0, 20)};
+        objects.add(new GeostObject(DIM, id, model.intVar(0), coords, model.intVar("s_" + id, 0, 5),
+                model.intVar("d_" + id, 1, 5), model.intVar("e_" + id, 0, 10)));
+    }
+
+    private void post(List<ExternalConstraint> ectrs) throws ContradictionException {
+        List<ShiftedBox> sbs = Collections.singletonList(new ShiftedBox(0, new int[]{0, 0}, new int[]{1, 1}));
+        Constraint geost = GeostBuilder.geost(DIM, objects, sbs, ectrs, null, opt);
+        model.post(geost);
+        prop = (PropGeost) geost.getPropagator(0);
+        model.getSolver().propagate();
+        model.getEnvironment().worldPush();
+    }
+
+    /**
+     * Propagates the changes made so far and returns the number of objects filtered by geost.
+     */
+    private long propagate() throws ContradictionException {
+        long before = opt.filteredObjects;
+        model.getSolver().propagate();
+        return opt.filteredObjects - before;
+    }
+
+    private IntVar x(int o) {
+        return objects.get(o).getCoord(0);
+    }
+
+    @Test(groups = "1s")
+    public void testPropagationConditions() throws ContradictionException {
+        addObject(0, 20);
+        addObject(0, 20);
+        post(Collections.singletonList(new NonOverlapping(Constants.NON_OVERLAPPING, new int[]{0, 1}, new int[]{0, 1})));
+        for (int o = 0; o < 2; o++) {
+            int first = o * (DIM + 4);
+            for (int j = 0; j < DIM; j++) {
+                // the shape is fixed, the holes of the coordinates make no difference
+                Assert.assertEquals(prop.getPropagationConditions(first + j), IntEventType.boundAndInst());
+            }
+            Assert.assertEquals(prop.getPropagationConditions(first + DIM), IntEventType.ALL_EVENTS);
+            for (int j = DIM + 1; j < DIM + 4; j++) {
+                Assert.assertEquals(prop.getPropagationConditions(first + j), IntEventType.VOID.getMask());
+            }
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testObjectEvents() throws ContradictionException {
+        for (int o = 0; o < 4; o++) {
+            addObject(0, 20);
+        }
+        List<ExternalConstraint> ectrs = new ArrayList<>();
+        ectrs.add(new NonOverlapping(Constants.NON_OVERLAPPING, new int[]{0, 1}, new int[]{0, 1}));
+        ectrs.add(new NonOverlapping(Constants.NON_OVERLAPPING, new int[]{0, 1}, new int[]{2, 3}));
+        post(ectrs);
+        // a coordinate of the first object
+        x(0).updateLowerBound(1, Cause.Null);
+        Assert.assertEquals(propagate(), 2);
+        // the last coordinate of the third object
+        objects.get(2).getCoord(1).updateUpperBound(18, Cause.Null);
+        Assert.assertEquals(propagate(), 2);
+        // start, duration and end are not watched
+        objects.get(3).getStart().updateLowerBound(1, Cause.Null);
+        objects.get(3).getDuration().updateUpperBound(4, Cause.Null);
+        objects.get(3).getEnd().updateUpperBound(9, Cause.Null);
+        Assert.assertEquals(propagate(), 0);
+        // both objects of a constraint
+        x(1).updateUpperBound(19, Cause.Null);
+        x(3).updateUpperBound(19, Cause.Null);
+        Assert.assertEquals(propagate(), 4);
+    }
+
+    @Test(groups = "1s")
+    public void testDistanceEvents() throws ContradictionException {
+        addObject(0, 5);
+        addObject(10, 20);
+        addObject(0, 20);
+        IntVar dist = model.intVar("dist", 0, 100);
+        List<ExternalConstraint> ectrs = new ArrayList<>();
+        ectrs.add(new DistLeq(Constants.DIST_LEQ, new int[]{0, 1}, new int[]{0, 1}, 100, 2, dist));
+        ectrs.add(new NonOverlapping(Constants.NON_OVERLAPPING, new int[]{0, 1}, new int[]{1, 2}));
+        post(ectrs);
+        int lb = dist.getLB();
+        Assert.assertTrue(lb > 0, "the distance is not updated");
+        // the distance is unchanged: nothing is filtered and all the objects have to be filtered at the next call
+        x(2).updateUpperBound(19, Cause.Null);
+        Assert.assertEquals(propagate(), 0);
+        Assert.assertTrue(prop.getGeometricKernel().hasSkippedFiltering());
+        // the distance grows: the objects of the skipped call are filtered with the first object of the constraint
+        x(0).updateUpperBound(4, Cause.Null);
+        Assert.assertEquals(propagate(), 3);
+        Assert.assertTrue(dist.getLB() > lb, "the distance is not updated");
+        lb = dist.getLB();
+        // the distance variable is watched for the first object, which only depends on itself
+        x(0).updateUpperBound(3, Cause.Null);
+        dist.updateUpperBound(90, Cause.Null);
+        Assert.assertEquals(propagate(), 1);
+        Assert.assertTrue(dist.getLB() > lb, "the distance is not updated");
+        Assert.assertFalse(prop.getGeometricKernel().hasSkippedFiltering());
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.internalConstraints;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that {@link OutboxCoalescer} keeps the union of random outboxes, and that no box it returns is contained in
+ * another one in one and two dimensions.
+ */
+public class OutboxCoalescerTest {
+
+    private static final int SEEDS = 1000;
+    // the boxes lie in [0,SIDE) in every dimension
+    private static final int SIDE = 8;
+
+    private static List<InternalConstraint> randomBoxes(int k, Random r) {
+        List<InternalConstraint> boxes = new ArrayList<>();
+        int nb = 1 + r.nextInt(20);
+        for (int b = 0; b < nb; b++) {
+            int[] t = new int[k];
+            int[] l = new int[k];
+            for (int j = 0; j < k; j++) {
+                // some boxes are aligned on a grid of step 2, so that they can be merged
+                boolean aligned = r.nextBoolean();
+                t[j] = aligned ? 2 * r.nextInt(SIDE / 2) : r.nextInt(SIDE);
+                l[j] = Math.min(SIDE - t[j], aligned ? 2 : 1 + r.nextInt(4));
+            }
+            boxes.add(new Outbox(t, l));
+        }
+        return boxes;
+    }
+
+    /**
+     * The points of [0,SIDE)^k covered by the boxes, the point p being at index sum(p[j] * SIDE^j).
+     */
+    private static boolean[] union(int k, List<InternalConstraint> boxes) {
+        int size = 1;
+        for (int j = 0; j < k; j++) {
+            size *= SIDE;
+        }
+        boolean[] covered = new boolean[size];
+        for (int p = 0; p < size; p++) {
+            for (InternalConstraint ictr : boxes) {
+                Outbox ob = (Outbox) ictr;
+                boolean in = true;
+                for (int j = 0, c = p; j < k && in; j++, c /= SIDE) {
+                    in = ob.getT(j) <= c % SIDE && c % SIDE < ob.getT(j) + ob.getL(j);
+                }
+                if (in) {
+                    covered[p] = true;
+                    break;
+                }
+            }
+        }
+        return covered;
+    }
+
+    private static boolean contains(Outbox a, Outbox b) {
+        for (int j = 0; j < a.getT().length; j++) {
+            if (b.getT(j) < a.getT(j) || a.getT(j) + a.getL(j) < b.getT(j) + b.getL(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test(groups = "1s")
+    public void testUnion() {
+        OutboxCoalescer coalescer = new OutboxCoalescer();
+        OutboxArena arena = new OutboxArena();
+        for (int k = 1; k <= 3; k++) {
+            for (long seed = 0; seed < SEEDS; seed++) {
+                List<InternalConstraint> boxes = randomBoxes(k, new Random(seed));
+                boolean[] expected = union(k, boxes);
+                int before = boxes.size();
+                arena.clear();
+                arena.addAll(boxes);
+                coalescer.coalesce(boxes, arena);
+                String what = k + " dimensions, seed " + seed;
+                Assert.assertEquals(union(k, boxes), expected, what);
+                Assert.assertTrue(boxes.size() <= before, what);
+                Assert.assertEquals(arena.size(), boxes.size(), what);
+                for (int a = 0; a < boxes.size(); a++) {
+                    Assert.assertSame(arena.get(a), boxes.get(a), what);
+                    for (int b = 0; b < boxes.size(); b++) {
+                        Assert.assertFalse(k <= 2 && a != b && contains((Outbox) boxes.get(a), (Outbox) boxes.get(b)),
+                                what + ": box " + b + " is contained in box " + a);
+                    }
+                }
+            }
+        }
+    }
+}
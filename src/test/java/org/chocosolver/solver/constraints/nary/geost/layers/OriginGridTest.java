@@ -0,0 +1,70 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.InternalConstraint;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Checks that {@link OriginGrid#project} finds the bounds that pruneMin and pruneMax find in every dimension, that is
+ * the generic loops of {@link GeometricKernel} on domains without holes.
+ */
+public class OriginGridTest {
+
+    private static final int SEEDS = 2000;
+
+    /**
+     * Projects the bounds of boxes and compares them with the bounds found by the sweeps in each dimension.
+     */
+    private static void check(UnrolledSweepTest.Boxes boxes, String what) {
+        int k = boxes.k;
+        int[] lb = boxes.lb.clone();
+        int[] ub = boxes.ub.clone();
+        boolean b = new OriginGrid(k).project(new ArrayList<InternalConstraint>(boxes.outboxes), lb, ub);
+        Point c = new Point(k);
+        for (int d = 0; d < k; d++) {
+            Assert.assertEquals(b, boxes.generic(d, true, c), what + ": pruneMin " + d);
+            if (b) {
+                Assert.assertEquals(lb[d], c.getCoord(d), what + ": pruneMin " + d);
+                boxes.generic(d, false, c);
+                Assert.assertEquals(ub[d], c.getCoord(d), what + ": pruneMax " + d);
+            }
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testHandBuilt() {
+        // in [0,4]x[0,3], the first two columns, the last row and the two points (3,0) and (4,0) are forbidden
+        UnrolledSweepTest.Boxes boxes = new UnrolledSweepTest.Boxes(new int[]{0, 0}, new int[]{4, 3},
+                new Outbox(new int[]{0, 0}, new int[]{2, 4}),
+                new Outbox(new int[]{-1, 3}, new int[]{7, 2}),
+                new Outbox(new int[]{3, -1}, new int[]{3, 2}));
+        check(boxes, "hand-built");
+        int[] lb = {0, 0};
+        int[] ub = {4, 3};
+        Assert.assertTrue(new OriginGrid(2).project(new ArrayList<InternalConstraint>(boxes.outboxes), lb, ub));
+        Assert.assertEquals(lb, new int[]{2, 0});
+        Assert.assertEquals(ub, new int[]{4, 2});
+    }
+
+    @Test(groups = "1s")
+    public void testRandom() {
+        for (int k = 2; k <= 3; k++) {
+            for (long seed = 0; seed < SEEDS; seed++) {
+                check(new UnrolledSweepTest.Boxes(k, new Random(seed)), k + " dimensions, seed " + seed);
+            }
+        }
+    }
+}
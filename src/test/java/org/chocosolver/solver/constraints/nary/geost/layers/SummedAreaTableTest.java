@@ -0,0 +1,88 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.InternalConstraint;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks {@link SummedAreaTable} against the sweep of pruneFix and against the enumeration of the points, on the random
+ * outboxes of {@link UnrolledSweepTest}.
+ */
+public class SummedAreaTableTest {
+
+    private static final int SEEDS = 500;
+
+    @Test(groups = "1s")
+    public void testFirstFree() {
+        for (int k = 2; k <= 3; k++) {
+            UnrolledSweep sweep = UnrolledSweep.of(k);
+            SummedAreaTable table = new SummedAreaTable(k);
+            List<int[]> ctrlVs = UnrolledSweepTest.controllingVectors(k);
+            for (long seed = 0; seed < SEEDS; seed++) {
+                UnrolledSweepTest.Boxes boxes = new UnrolledSweepTest.Boxes(k, new Random(seed));
+                table.build(new ArrayList<InternalConstraint>(boxes.outboxes), (int) seed, boxes.lb, boxes.ub);
+                Point expected = new Point(k);
+                Point actual = new Point(k);
+                for (int[] ctrlV : ctrlVs) {
+                    String what = "seed " + seed + ", ctrlV " + Arrays.toString(ctrlV);
+                    boolean b = sweep.pruneFix(ctrlV, boxes.lb, boxes.ub, expected, boxes);
+                    Assert.assertEquals(table.firstFree(ctrlV, actual), b, what);
+                    if (b) {
+                        Assert.assertEquals(actual.getCoords(), expected.getCoords(), what);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testCount() {
+        for (int k = 2; k <= 3; k++) {
+            SummedAreaTable table = new SummedAreaTable(k);
+            for (long seed = 0; seed < SEEDS; seed++) {
+                Random r = new Random(seed);
+                UnrolledSweepTest.Boxes boxes = new UnrolledSweepTest.Boxes(k, r);
+                table.build(new ArrayList<InternalConstraint>(boxes.outboxes), (int) seed, boxes.lb, boxes.ub);
+                int[] lo = new int[k];
+                int[] hi = new int[k];
+                for (int q = 0; q < 10; q++) {
+                    for (int j = 0; j < k; j++) {
+                        lo[j] = boxes.lb[j] + r.nextInt(boxes.ub[j] - boxes.lb[j] + 1);
+                        hi[j] = lo[j] + r.nextInt(boxes.ub[j] - lo[j] + 1);
+                    }
+                    Assert.assertEquals(table.count(lo, hi), forbidden(boxes, lo, hi, new Point(k), 0),
+                            "seed " + seed + ", box " + Arrays.toString(lo) + " " + Arrays.toString(hi));
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the points of [lo,hi] which belong to an outbox of boxes.
+     */
+    private static int forbidden(UnrolledSweepTest.Boxes boxes, int[] lo, int[] hi, Point c, int j) {
+        if (j == lo.length) {
+            return boxes.find(c) == null ? 0 : 1;
+        }
+        int nb = 0;
+        for (int v = lo[j]; v <= hi[j]; v++) {
+            c.setCoord(j, v);
+            nb += forbidden(boxes, lo, hi, c, j + 1);
+        }
+        return nb;
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * This file is part of choco-geost, https://github.com/chocoteam/choco-geost
+ *
+ * Copyright (c) 2023, IMT Atlantique. All rights reserved.
+ *
+ * Licensed under the BSD 4-clause license.
+ * See LICENSE file in the project root for full license information.
+ */
+package org.chocosolver.solver.constraints.nary.geost.layers;
+
+import org.chocosolver.solver.constraints.nary.geost.geometricPrim.Point;
+import org.chocosolver.solver.constraints.nary.geost.internalConstraints.Outbox;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the sweeps of {@link UnrolledSweep} against the generic loops of {@link GeometricKernel}, on random outboxes
+ * and bounds.
+ */
+public class UnrolledSweepTest {
+
+    private static final int SEEDS = 2000;
+
+    /**
+     * Random bounds and outboxes around them.
+     */
+    static final class Boxes implements UnrolledSweep.BoxFinder {
+        final int k;
+        final int[] lb;
+        final int[] ub;
+        final List<Outbox> outboxes = new ArrayList<>();
+
+        Boxes(int k, Random r) {
+            this.k = k;
+            lb = new int[k];
+            ub = new int[k];
+            for (int j = 0; j < k; j++) {
+                lb[j] = r.nextInt(7) - 3;
+                ub[j] = lb[j] + r.nextInt(k == 2 ? 10 : 6);
+            }
+            int nb = r.nextInt(k == 2 ? 24 : 40);
+            for (int b = 0; b < nb; b++) {
+                int[] t = new int[k];
+                int[] l = new int[k];
+                for (int j = 0; j < k; j++) {
+                    t[j] = lb[j] - 3 + r.nextInt(ub[j] - lb[j] + 5);
+                    l[j] = 1 + r.nextInt(5);
+                }
+                outboxes.add(new Outbox(t, l));
+            }
+        }
+
+        /**
+         * The bounds [lb,ub] and the given outboxes.
+         */
+        Boxes(int[] lb, int[] ub, Outbox... outboxes) {
+            this.k = lb.length;
+            this.lb = lb;
+            this.ub = ub;
+            this.outboxes.addAll(Arrays.asList(outboxes));
+        }
+
+        @Override
+        public Outbox find(Point c) {
+            for (Outbox ob : outboxes) {
+                boolean in = true;
+                for (int j = 0; j < k && in; j++) {
+                    in = ob.getT(j) <= c.getCoord(j) && c.getCoord(j) < ob.getT(j) + ob.getL(j);
+                }
+                if (in) {
+                    return ob;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * The sweep of pruneMin (increase) or pruneMax in dimension d, with the generic adjustUp and adjustDown.
+         */
+        boolean generic(int d, boolean increase, Point c) {
+            Point n = new Point(k);
+            for (int j = 0; j < k; j++) {
+                c.setCoord(j, increase ? lb[j] : ub[j]);
+                n.setCoord(j, increase ? ub[j] + 1 : lb[j] - 1);
+            }
+            Outbox ob = find(c);
+            while (ob != null) {
+                for (int j = 0; j < k; j++) {
+                    n.setCoord(j, UnrolledSweep.jump(increase, n.getCoord(j), ob.getT(j), ob.getL(j), lb[j], ub[j]));
+                }
+                boolean b = increase ? GeometricKernel.adjustUp(c, n, lb, ub, d, k)
+                        : GeometricKernel.adjustDown(c, n, lb, ub, d, k);
+                if (!b) {
+                    return false;
+                }
+                ob = find(c);
+            }
+            return true;
+        }
+
+        /**
+         * The first point of the bounds which belongs to no outbox, in the order of the controlling vector ctrlV, found
+         * by enumerating the points.
+         */
+        boolean firstFree(int[] ctrlV, int i, Point c) {
+            if (i == k) {
+                return find(c) == null;
+            }
+            int d = UnrolledSweep.dimOf(ctrlV, i);
+            boolean up = ctrlV[i + 1] < 0;
+            for (int v = up ? lb[d] : ub[d]; up ? v <= ub[d] : v >= lb[d]; v += up ? 1 : -1) {
+                c.setCoord(d, v);
+                if (firstFree(ctrlV, i + 1, c)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * All the controlling vectors of k dimensions: every order of the dimensions, each swept up or down.
+     */
+    static List<int[]> controllingVectors(int k) {
+        List<int[]> ctrlVs = new ArrayList<>();
+        int[] dims = k == 2 ? new int[]{0, 1, 1, 0} : new int[]{0, 1, 2, 0, 2, 1, 1, 0, 2, 1, 2, 0, 2, 0, 1, 2, 1, 0};
+        for (int p = 0; p < dims.length; p += k) {
+            for (int signs = 0; signs < (1 << k); signs++) {
+                int[] ctrlV = new int[k + 1];
+                ctrlV[0] = -1;
+                for (int i = 0; i < k; i++) {
+                    ctrlV[i + 1] = ((signs & (1 << i)) == 0 ? -1 : 1) * (dims[p + i] + 2);
+                }
+                ctrlVs.add(ctrlV);
+            }
+        }
+        return ctrlVs;
+    }
+
+    private static String describe(long seed, String what) {
+        return "seed " + seed + ", " + what;
+    }
+
+    @Test(groups = "1s")
+    public void testPruneMinMax() {
+        for (int k = 2; k <= 3; k++) {
+            UnrolledSweep unrolled = UnrolledSweep.of(k);
+            for (long seed = 0; seed < SEEDS; seed++) {
+                Boxes boxes = new Boxes(k, new Random(seed));
+                Point expected = new Point(k);
+                Point actual = new Point(k);
+                for (int d = 0; d < k; d++) {
+                    boolean b = boxes.generic(d, true, expected);
+                    Assert.assertEquals(unrolled.pruneMin(d, boxes.lb, boxes.ub, actual, boxes), b, describe(seed, "pruneMin " + d));
+                    if (b) {
+                        Assert.assertEquals(actual.getCoords(), expected.getCoords(), describe(seed, "pruneMin " + d));
+                    }
+                    b = boxes.generic(d, false, expected);
+                    Assert.assertEquals(unrolled.pruneMax(d, boxes.lb, boxes.ub, actual, boxes), b, describe(seed, "pruneMax " + d));
+                    if (b) {
+                        Assert.assertEquals(actual.getCoords(), expected.getCoords(), describe(seed, "pruneMax " + d));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testPruneFix() {
+        for (int k = 2; k <= 3; k++) {
+            UnrolledSweep unrolled = UnrolledSweep.of(k);
+            List<int[]> ctrlVs = controllingVectors(k);
+            for (long seed = 0; seed < SEEDS / 4; seed++) {
+                Boxes boxes = new Boxes(k, new Random(seed));
+                Point expected = new Point(k);
+                Point actual = new Point(k);
+                for (int[] ctrlV : ctrlVs) {
+                    boolean b = boxes.firstFree(ctrlV, 0, expected);
+                    String what = describe(seed, "ctrlV " + Arrays.toString(ctrlV));
+                    Assert.assertEquals(unrolled.pruneFix(ctrlV, boxes.lb, boxes.ub, actual, boxes), b, what);
+                    if (b) {
+                        Assert.assertEquals(actual.getCoords(), expected.getCoords(), what);
+                    }
+                }
+            }
+        }
+    }
+}